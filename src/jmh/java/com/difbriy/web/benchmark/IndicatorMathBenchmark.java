@@ -0,0 +1,134 @@
+package com.difbriy.web.benchmark;
+
+import com.difbriy.web.service.crypto.indicator.IndicatorMath;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch indicators over one price series: the {@link BigDecimal} implementation that used to live in
+ * {@code CryptoDataService} (kept here verbatim as the baseline) against {@link IndicatorMath}.
+ * The double variant includes the conversion of the input list, as the service pays for it too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class IndicatorMathBenchmark {
+
+    @Param({"1000", "20160", "500000"})
+    int size;
+
+    List<BigDecimal> decimalPrices;
+
+    @Setup
+    public void setUp() {
+        decimalPrices = SyntheticMarketData.decimalSeries(size, SyntheticMarketData.SEED);
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole bh) {
+        bh.consume(LegacyIndicators.rsi(decimalPrices));
+        bh.consume(LegacyIndicators.sma(decimalPrices, Math.min(20, decimalPrices.size())));
+        bh.consume(LegacyIndicators.sma(decimalPrices, Math.min(50, decimalPrices.size())));
+        bh.consume(LegacyIndicators.sma(decimalPrices, Math.min(200, decimalPrices.size())));
+        bh.consume(LegacyIndicators.volatility(decimalPrices));
+        bh.consume(LegacyIndicators.supportResistance(decimalPrices));
+    }
+
+    @Benchmark
+    public void primitive(Blackhole bh) {
+        double[] prices = IndicatorMath.toArray(decimalPrices);
+        bh.consume(IndicatorMath.rsi(prices, 14));
+        bh.consume(IndicatorMath.sma(prices, 20));
+        bh.consume(IndicatorMath.sma(prices, 50));
+        bh.consume(IndicatorMath.sma(prices, 200));
+        bh.consume(IndicatorMath.stdDev(prices, 0, prices.length) / IndicatorMath.mean(prices, 0, prices.length) * 100);
+        bh.consume(IndicatorMath.min(prices, 0, prices.length));
+        bh.consume(IndicatorMath.max(prices, 0, prices.length));
+    }
+
+    /**
+     * Baseline copy of the removed {@code CryptoDataService} methods, do not optimise.
+     */
+    static final class LegacyIndicators {
+
+        static BigDecimal rsi(List<BigDecimal> prices) {
+            if (prices.size() < 14) return BigDecimal.valueOf(50);
+
+            List<BigDecimal> gains = new ArrayList<>();
+            List<BigDecimal> losses = new ArrayList<>();
+
+            for (int i = 1; i < prices.size(); i++) {
+                BigDecimal change = prices.get(i).subtract(prices.get(i - 1));
+                if (change.compareTo(BigDecimal.ZERO) > 0) {
+                    gains.add(change);
+                    losses.add(BigDecimal.ZERO);
+                } else {
+                    gains.add(BigDecimal.ZERO);
+                    losses.add(change.abs());
+                }
+            }
+            BigDecimal avgGain = gains.stream()
+                    .limit(14)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .divide(BigDecimal.valueOf(14), 4, RoundingMode.HALF_UP);
+
+            BigDecimal avgLoss = losses.stream()
+                    .limit(14)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .divide(BigDecimal.valueOf(14), 4, RoundingMode.HALF_UP);
+
+            if (avgLoss.compareTo(BigDecimal.ZERO) == 0) {
+                return BigDecimal.valueOf(100);
+            }
+
+            BigDecimal rs = avgGain.divide(avgLoss, 4, RoundingMode.HALF_UP);
+            return BigDecimal.valueOf(100).subtract(
+                    BigDecimal.valueOf(100).divide(BigDecimal.ONE.add(rs), 4, RoundingMode.HALF_UP)
+            );
+        }
+
+        static BigDecimal sma(List<BigDecimal> prices, int period) {
+            if (prices.size() < period) {
+                return prices.stream()
+                        .reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .divide(BigDecimal.valueOf(prices.size()), 8, RoundingMode.HALF_UP);
+            }
+
+            return prices.stream()
+                    .skip(prices.size() - period)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .divide(BigDecimal.valueOf(period), 8, RoundingMode.HALF_UP);
+        }
+
+        static BigDecimal volatility(List<BigDecimal> prices) {
+            if (prices.size() < 2) return BigDecimal.valueOf(5);
+
+            BigDecimal mean = sma(prices, prices.size());
+
+            BigDecimal variance = prices.stream()
+                    .map(price -> price.subtract(mean).pow(2))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .divide(BigDecimal.valueOf(prices.size()), 8, RoundingMode.HALF_UP);
+
+            BigDecimal stdDev = new BigDecimal(Math.sqrt(variance.doubleValue()));
+            return stdDev.divide(mean, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+        }
+
+        static BigDecimal[] supportResistance(List<BigDecimal> prices) {
+            BigDecimal min = prices.stream().min(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
+            BigDecimal max = prices.stream().max(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
+
+            BigDecimal support = min.add(max.subtract(min).multiply(BigDecimal.valueOf(0.2)));
+            BigDecimal resistance = min.add(max.subtract(min).multiply(BigDecimal.valueOf(0.8)));
+
+            return new BigDecimal[]{support, resistance};
+        }
+    }
+}
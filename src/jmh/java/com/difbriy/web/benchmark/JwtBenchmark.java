@@ -0,0 +1,64 @@
+package com.difbriy.web.benchmark;
+
+import com.difbriy.web.service.security.JwtService;
+import io.jsonwebtoken.io.Encoders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Field;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT work of the authentication filter: signature check plus claim extraction.
+ * The service is built without repositories, token parsing does not touch them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    JwtService jwtService;
+    UserDetails userDetails;
+    String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtService = new JwtService(null, null, null);
+        // Случайный 256-битный ключ в том же BASE64URL-формате, что jwt.secret-key; настоящий ключ сюда не копируем
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        setField(jwtService, "secretKey", Encoders.BASE64URL.encode(key));
+        setField(jwtService, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        setField(jwtService, "refreshExpiration", TimeUnit.DAYS.toMillis(7));
+
+        userDetails = User.withUsername("benchmark@example.com")
+                .password("unused")
+                .roles("USER")
+                .build();
+        token = jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtService.isTokenValid(token, userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.getUsername(token);
+    }
+
+    @Benchmark
+    public List<String> extractRoles() {
+        return jwtService.getRoles(token);
+    }
+
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,61 @@
+package com.difbriy.web.benchmark;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.entity.CryptoData;
+import com.difbriy.web.service.crypto.CoinMarketCapParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion hot path of {@code CryptoService.scheduledUpdate}: parsing the listings body into
+ * {@link CoinQuote} and mapping the quotes to the {@link CryptoData} rows served by the REST API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ListingsParseBenchmark {
+
+    @Param({"100", "5000"})
+    int coins;
+
+    CoinMarketCapParser parser;
+    byte[] body;
+    LocalDateTime timestamp;
+
+    @Setup
+    public void setUp() {
+        parser = new CoinMarketCapParser(new ObjectMapper());
+        body = SyntheticMarketData.listingsJson(SyntheticMarketData.quotes(coins, SyntheticMarketData.SEED));
+        timestamp = LocalDateTime.of(2024, 3, 1, 10, 0);
+    }
+
+    @Benchmark
+    public List<CoinQuote> parse() throws IOException {
+        return parser.parseListings(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public List<CryptoData> parseAndMap() throws IOException {
+        List<CoinQuote> quotes = parser.parseListings(new ByteArrayInputStream(body));
+        List<CryptoData> rows = new ArrayList<>(quotes.size());
+        for (CoinQuote quote : quotes) {
+            CryptoData data = new CryptoData();
+            data.setSymbol(quote.symbol());
+            data.setName(quote.name());
+            data.setPrice(CoinQuote.decimal(quote.price()));
+            data.setMarketCap(CoinQuote.decimal(quote.marketCap()));
+            data.setVolume24h(CoinQuote.decimal(quote.volume24h()));
+            data.setPercentChange24h(CoinQuote.decimal(quote.percentChange24h()));
+            data.setTimestamp(timestamp);
+            rows.add(data);
+        }
+        return rows;
+    }
+}
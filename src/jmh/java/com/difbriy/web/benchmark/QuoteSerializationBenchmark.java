@@ -0,0 +1,87 @@
+package com.difbriy.web.benchmark;
+
+import com.difbriy.web.dto.crypto.CachedQuotes;
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.serializer.CoinQuoteRedisSerializer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialisation of the all-coins list: the Redis round trip with the generic Jackson serializer
+ * of {@code redisTemplate} (over the {@code List<Map>} value the cache used to hold, {@link CoinQuote}
+ * itself carries no type id) against the binary {@link CoinQuoteRedisSerializer} of the quote cache,
+ * and the STOMP frame built for a {@code /topic/crypto} broadcast.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class QuoteSerializationBenchmark {
+
+    @Param({"100", "5000"})
+    int coins;
+
+    List<CoinQuote> quotes;
+    CachedQuotes cachedQuotes;
+    List<Map<String, Object>> quoteMaps;
+    GenericJackson2JsonRedisSerializer jsonRedisSerializer;
+    CoinQuoteRedisSerializer binaryRedisSerializer;
+    MappingJackson2MessageConverter messageConverter;
+    StompEncoder stompEncoder;
+
+    @Setup
+    public void setUp() {
+        quotes = SyntheticMarketData.quotes(coins, SyntheticMarketData.SEED);
+        cachedQuotes = new CachedQuotes(Instant.parse("2024-03-01T10:00:00Z"), quotes);
+        quoteMaps = new ObjectMapper().convertValue(quotes, new TypeReference<>() {
+        });
+        jsonRedisSerializer = new GenericJackson2JsonRedisSerializer();
+        binaryRedisSerializer = new CoinQuoteRedisSerializer();
+
+        // Как в Boot: брокерный конвертер использует общий ObjectMapper приложения
+        ObjectMapper objectMapper = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        messageConverter = new MappingJackson2MessageConverter();
+        messageConverter.setObjectMapper(objectMapper);
+        stompEncoder = new StompEncoder();
+    }
+
+    @Benchmark
+    public Object redisGenericJacksonRoundTrip() {
+        byte[] bytes = jsonRedisSerializer.serialize(quoteMaps);
+        return jsonRedisSerializer.deserialize(bytes);
+    }
+
+    @Benchmark
+    public CachedQuotes redisBinaryRoundTrip() {
+        byte[] bytes = binaryRedisSerializer.serialize(cachedQuotes);
+        return binaryRedisSerializer.deserialize(bytes);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public byte[] stompBroadcastFrame() {
+        Message<byte[]> converted = (Message<byte[]>) messageConverter.toMessage(quotes, null);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setDestination("/topic/crypto");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setMessageId("0");
+        accessor.setContentType(converted.getHeaders().get(MessageHeaders.CONTENT_TYPE, MimeType.class));
+        return stompEncoder.encode(MessageBuilder.createMessage(converted.getPayload(), accessor.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.difbriy.web.benchmark;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generators for benchmark inputs. The same seed always yields the same data,
+ * so runs on different machines and before/after a change measure identical work.
+ */
+final class SyntheticMarketData {
+
+    static final long SEED = 42L;
+
+    private static final String LAST_UPDATED = "2024-03-01T09:59:00.000Z";
+
+    private SyntheticMarketData() {
+    }
+
+    /**
+     * Geometric random walk starting at 100 with 1% tick volatility.
+     */
+    static double[] priceSeries(int length, long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[length];
+        double price = 100;
+        for (int i = 0; i < length; i++) {
+            price = Math.max(1, price * (1 + random.nextGaussian() * 0.01));
+            prices[i] = price;
+        }
+        return prices;
+    }
+
+    static List<BigDecimal> decimalSeries(int length, long seed) {
+        double[] prices = priceSeries(length, seed);
+        List<BigDecimal> decimals = new ArrayList<>(length);
+        for (double price : prices) {
+            decimals.add(BigDecimal.valueOf(price).setScale(8, RoundingMode.HALF_UP));
+        }
+        return decimals;
+    }
+
+    /**
+     * Listing of {@code count} coins ranked by market cap, roughly the shape of the CoinMarketCap top list.
+     */
+    static List<CoinQuote> quotes(int count, long seed) {
+        Random random = new Random(seed);
+        List<CoinQuote> quotes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double price = Math.exp(random.nextDouble() * 20 - 8);
+            double supply = 1_000_000 + random.nextDouble() * 1e11;
+            double marketCap = price * supply;
+            String symbol = "C" + Integer.toString(i, 36).toUpperCase();
+            quotes.add(new CoinQuote(
+                    i + 1L,
+                    "Coin " + symbol,
+                    symbol,
+                    "coin-" + symbol.toLowerCase(),
+                    i + 1,
+                    supply,
+                    supply * 1.1,
+                    random.nextBoolean() ? supply * 2 : Double.NaN,
+                    price,
+                    marketCap * random.nextDouble() * 0.2,
+                    random.nextGaussian() * 10,
+                    random.nextGaussian(),
+                    random.nextGaussian() * 3,
+                    random.nextGaussian() * 8,
+                    random.nextGaussian() * 20,
+                    random.nextGaussian() * 30,
+                    random.nextGaussian() * 40,
+                    marketCap,
+                    random.nextDouble() * 10,
+                    marketCap * 1.1,
+                    LAST_UPDATED
+            ));
+        }
+        return quotes;
+    }
+
+    /**
+     * Serialises quotes as a {@code listings/latest} response body, including the fields
+     * the parser has to skip (status block, tags, platform and a second currency).
+     */
+    static byte[] listingsJson(List<CoinQuote> quotes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(quotes.size() * 1024);
+        try (JsonGenerator gen = new JsonFactory().createGenerator(bytes)) {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("status");
+            gen.writeStringField("timestamp", LAST_UPDATED);
+            gen.writeNumberField("error_code", 0);
+            gen.writeNullField("error_message");
+            gen.writeNumberField("credit_count", 1);
+            gen.writeEndObject();
+            gen.writeArrayFieldStart("data");
+            for (CoinQuote quote : quotes) {
+                writeCoin(gen, quote);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeCoin(JsonGenerator gen, CoinQuote quote) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", quote.id());
+        gen.writeStringField("name", quote.name());
+        gen.writeStringField("symbol", quote.symbol());
+        gen.writeStringField("slug", quote.slug());
+        gen.writeNumberField("cmc_rank", quote.rank());
+        gen.writeNumberField("num_market_pairs", 100);
+        gen.writeStringField("date_added", LAST_UPDATED);
+        gen.writeArrayFieldStart("tags");
+        gen.writeString("mineable");
+        gen.writeString("pow");
+        gen.writeEndArray();
+        gen.writeNullField("platform");
+        writeNumber(gen, "circulating_supply", quote.circulatingSupply());
+        writeNumber(gen, "total_supply", quote.totalSupply());
+        writeNumber(gen, "max_supply", quote.maxSupply());
+        gen.writeObjectFieldStart("quote");
+        gen.writeObjectFieldStart("EUR");
+        writeNumber(gen, "price", quote.price() * 0.92);
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("USD");
+        writeNumber(gen, "price", quote.price());
+        writeNumber(gen, "volume_24h", quote.volume24h());
+        writeNumber(gen, "volume_change_24h", quote.volumeChange24h());
+        writeNumber(gen, "percent_change_1h", quote.percentChange1h());
+        writeNumber(gen, "percent_change_24h", quote.percentChange24h());
+        writeNumber(gen, "percent_change_7d", quote.percentChange7d());
+        writeNumber(gen, "percent_change_30d", quote.percentChange30d());
+        writeNumber(gen, "percent_change_60d", quote.percentChange60d());
+        writeNumber(gen, "percent_change_90d", quote.percentChange90d());
+        writeNumber(gen, "market_cap", quote.marketCap());
+        writeNumber(gen, "market_cap_dominance", quote.marketCapDominance());
+        writeNumber(gen, "fully_diluted_market_cap", quote.fullyDilutedMarketCap());
+        gen.writeNullField("tvl");
+        gen.writeStringField("last_updated", quote.lastUpdated());
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator gen, String field, double value) throws IOException {
+        if (CoinQuote.isPresent(value)) {
+            gen.writeNumberField(field, value);
+        } else {
+            gen.writeNullField(field);
+        }
+    }
+}
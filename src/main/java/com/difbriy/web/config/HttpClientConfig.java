@@ -0,0 +1,135 @@
+package com.difbriy.web.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${http.client.max-idle-connections:20}")
+    private int maxIdleConnections;
+
+    @Value("${http.client.keep-alive:5m}")
+    private Duration keepAlive;
+
+    @Value("${http.client.max-requests:64}")
+    private int maxRequests;
+
+    @Value("${http.client.max-requests-per-host:16}")
+    private int maxRequestsPerHost;
+
+    @Value("${http.client.ping-interval:30s}")
+    private Duration pingInterval;
+
+    @Bean(destroyMethod = "evictAll")
+    public ConnectionPool httpConnectionPool(MeterRegistry meterRegistry) {
+        ConnectionPool pool = new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+        Gauge.builder("http.client.pool.connections", pool, ConnectionPool::connectionCount)
+                .tag("state", "total")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.connections", pool, ConnectionPool::idleConnectionCount)
+                .tag("state", "idle")
+                .register(meterRegistry);
+        return pool;
+    }
+
+    @Bean
+    public Dispatcher httpDispatcher(MeterRegistry meterRegistry) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        Gauge.builder("http.client.calls", dispatcher, Dispatcher::runningCallsCount)
+                .tag("state", "running")
+                .register(meterRegistry);
+        Gauge.builder("http.client.calls", dispatcher, Dispatcher::queuedCallsCount)
+                .tag("state", "queued")
+                .register(meterRegistry);
+        return dispatcher;
+    }
+
+    @Bean
+    public OkHttpClient httpClient(ConnectionPool httpConnectionPool, Dispatcher httpDispatcher) {
+        return new OkHttpClient.Builder()
+                .connectionPool(httpConnectionPool)
+                .dispatcher(httpDispatcher)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .pingInterval(pingInterval)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    @Bean
+    public MarketDataHttpClients marketDataHttpClients(
+            OkHttpClient httpClient,
+            MeterRegistry meterRegistry,
+            @Value("${http.client.coinmarketcap.connect-timeout:5s}") Duration cmcConnectTimeout,
+            @Value("${http.client.coinmarketcap.read-timeout:15s}") Duration cmcReadTimeout,
+            @Value("${http.client.coingecko.connect-timeout:5s}") Duration geckoConnectTimeout,
+            @Value("${http.client.coingecko.read-timeout:15s}") Duration geckoReadTimeout,
+            @Value("${http.client.local-llm.connect-timeout:2s}") Duration llmConnectTimeout,
+            @Value("${http.client.local-llm.read-timeout:120s}") Duration llmReadTimeout) {
+
+        return new MarketDataHttpClients(
+                providerClient(httpClient, meterRegistry, "coinmarketcap", cmcConnectTimeout, cmcReadTimeout),
+                providerClient(httpClient, meterRegistry, "coingecko", geckoConnectTimeout, geckoReadTimeout),
+                providerClient(httpClient, meterRegistry, "local-llm", llmConnectTimeout, llmReadTimeout)
+        );
+    }
+
+    private OkHttpClient providerClient(OkHttpClient base, MeterRegistry meterRegistry, String provider,
+                                        Duration connectTimeout, Duration readTimeout) {
+        // newBuilder() keeps the shared pool and dispatcher, only timeouts and listener differ
+        return base.newBuilder()
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(readTimeout)
+                .eventListener(new ConnectionMetricsListener(meterRegistry, provider))
+                .build();
+    }
+
+    /**
+     * Counts calls against fresh TCP/TLS connects, so pool reuse per provider is visible in metrics.
+     */
+    private static class ConnectionMetricsListener extends EventListener {
+        private final Counter calls;
+        private final Counter connects;
+        private final Counter handshakes;
+
+        ConnectionMetricsListener(MeterRegistry meterRegistry, String provider) {
+            this.calls = meterRegistry.counter("http.client.requests.started", "provider", provider);
+            this.connects = meterRegistry.counter("http.client.connects", "provider", provider);
+            this.handshakes = meterRegistry.counter("http.client.tls.handshakes", "provider", provider);
+        }
+
+        @Override
+        public void callStart(Call call) {
+            calls.increment();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connects.increment();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            handshakes.increment();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.difbriy.web.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import okhttp3.OkHttpClient;
+
+/**
+ * Per-provider HTTP clients. All of them are derived from one base client,
+ * so they share a single connection pool and dispatcher and only differ in timeouts.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MarketDataHttpClients {
+    private final OkHttpClient coinMarketCap;
+    private final OkHttpClient coinGecko;
+    private final OkHttpClient localLlm;
+}
@@ -1,5 +1,9 @@
 package com.difbriy.web.config;
 
+import com.difbriy.web.dto.crypto.CachedQuotes;
+import com.difbriy.web.serializer.CoinQuoteRedisSerializer;
+import com.difbriy.web.service.crypto.QuoteCache;
+
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +12,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -34,4 +40,23 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-} 
\ No newline at end of file
+
+    @Bean
+    public RedisTemplate<String, CachedQuotes> coinQuoteRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, CachedQuotes> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new CoinQuoteRedisSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer quoteCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                        QuoteCache quoteCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(quoteCache, new ChannelTopic(QuoteCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
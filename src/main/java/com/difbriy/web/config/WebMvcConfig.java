@@ -0,0 +1,18 @@
+package com.difbriy.web.config;
+
+import com.difbriy.web.serializer.ChartSeriesHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // В конец списка: при Accept: */* ответ остаётся JSON, бинарный формат только по явному запросу
+        converters.add(new ChartSeriesHttpMessageConverter());
+    }
+}
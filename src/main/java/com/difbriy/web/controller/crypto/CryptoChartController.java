@@ -1,22 +1,36 @@
 package com.difbriy.web.controller.crypto;
 
+import com.difbriy.web.dto.crypto.CoinQuote;
 import com.difbriy.web.dto.crypto.CryptoChartData;
+import com.difbriy.web.dto.crypto.PriceStats;
 import com.difbriy.web.entity.CryptoData;
+import com.difbriy.web.serializer.ChartSeriesHttpMessageConverter;
+import com.difbriy.web.service.crypto.CryptoExportService;
 import com.difbriy.web.service.crypto.CryptoService;
+import com.difbriy.web.service.crypto.CryptoStatsService;
+import com.difbriy.web.service.crypto.indicator.IndicatorEngine;
+import com.difbriy.web.service.crypto.indicator.IndicatorMath;
+import com.difbriy.web.service.crypto.indicator.IndicatorSnapshot;
+import com.difbriy.web.service.crypto.series.PriceSeriesStore;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/crypto/chart")
@@ -27,30 +41,35 @@ public class CryptoChartController {
 
     CryptoService cryptoService;
     SimpMessagingTemplate messagingTemplate;
+    IndicatorEngine indicatorEngine;
+    CryptoStatsService cryptoStatsService;
+    CryptoExportService cryptoExportService;
+    MarketDataCaching marketDataCaching;
 
     @GetMapping("/{symbol}")
     public ResponseEntity<CryptoChartData> getCryptoChartData(
             @PathVariable String symbol,
-            @RequestParam(defaultValue = "7d") String period) {
+            @RequestParam(defaultValue = "7d") String period,
+            @RequestParam(required = false) Integer maxPoints,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         try {
-            List<CryptoData> historyData = cryptoService.getCryptoHistory(symbol, period);
+            // Версию берём до чтения данных: тег может отстать от тела, но не опередить его.
+            // JSON и бинарный формат — разные представления, у каждого свой тег
+            String etag = MarketDataCaching.etag("chart", chartRepresentation(accept), cryptoService.chartVersion());
+            if (MarketDataCaching.matches(ifNoneMatch, etag)) {
+                return marketDataCaching.notModified(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+
+            List<CryptoChartData.ChartPoint> chartPoints = cryptoService.getChartHistory(symbol, period, maxPoints);
 
-            if (historyData.isEmpty()) {
+            if (chartPoints.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
             CryptoData latestData = cryptoService.getLatestCryptoData(symbol);
 
-            List<CryptoChartData.ChartPoint> chartPoints = historyData.stream()
-                    .map(data -> new CryptoChartData.ChartPoint(
-                            data.getTimestamp(),
-                            data.getPrice(),
-                            data.getVolume24h(),
-                            data.getMarketCap()
-                    ))
-                    .collect(Collectors.toList());
-
             CryptoChartData chartData = new CryptoChartData();
             chartData.setSymbol(symbol);
             chartData.setName(latestData != null ? latestData.getName() : symbol);
@@ -65,7 +84,10 @@ public class CryptoChartController {
                 chartData.setLastUpdated(latestData.getTimestamp());
             }
 
-            return ResponseEntity.ok(chartData);
+            // JSON и бинарный формат отдаются по одному URL, кэш должен различать их по Accept
+            return marketDataCaching.ok(etag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(chartData);
 
         } catch (Exception e) {
             log.error("Error getting chart data for symbol: {}", symbol, e);
@@ -74,10 +96,19 @@ public class CryptoChartController {
     }
 
     @GetMapping("/symbols")
-    public ResponseEntity<List<String>> getAllCryptoSymbols() {
+    public ResponseEntity<List<String>> getAllCryptoSymbols(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            long version = cryptoService.latestDataVersion();
+            if (version == 0) {
+                return ResponseEntity.ok(cryptoService.getAllCryptoSymbols());
+            }
+            String etag = MarketDataCaching.etag("symbols", version);
+            if (MarketDataCaching.matches(ifNoneMatch, etag)) {
+                return marketDataCaching.notModified(etag).build();
+            }
             List<String> symbols = cryptoService.getAllCryptoSymbols();
-            return ResponseEntity.ok(symbols);
+            return marketDataCaching.ok(etag).body(symbols);
         } catch (Exception e) {
             log.error("Error getting crypto symbols", e);
             return ResponseEntity.internalServerError().build();
@@ -85,10 +116,19 @@ public class CryptoChartController {
     }
 
     @GetMapping("/latest")
-    public ResponseEntity<List<CryptoData>> getLatestCryptoData() {
+    public ResponseEntity<List<CryptoData>> getLatestCryptoData(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            long version = cryptoService.latestDataVersion();
+            if (version == 0) {
+                return ResponseEntity.ok(cryptoService.getLatestCryptoData());
+            }
+            String etag = MarketDataCaching.etag("latest", version);
+            if (MarketDataCaching.matches(ifNoneMatch, etag)) {
+                return marketDataCaching.notModified(etag).build();
+            }
             List<CryptoData> latestData = cryptoService.getLatestCryptoData();
-            return ResponseEntity.ok(latestData);
+            return marketDataCaching.ok(etag).body(latestData);
         } catch (Exception e) {
             log.error("Error getting latest crypto data", e);
             return ResponseEntity.internalServerError().build();
@@ -128,6 +168,28 @@ public class CryptoChartController {
         }
     }
 
+    @GetMapping("/indicators/{symbol}")
+    public ResponseEntity<Map<String, Object>> getCryptoIndicators(@PathVariable String symbol) {
+        IndicatorSnapshot indicators = indicatorEngine.get(symbol);
+        if (indicators == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("symbol", symbol);
+        body.put("price", CoinQuote.decimal(indicators.price()));
+        body.put("rsi", CoinQuote.decimal(indicators.rsi()));
+        body.put("sma20", CoinQuote.decimal(indicators.sma20()));
+        body.put("sma50", CoinQuote.decimal(indicators.sma50()));
+        body.put("sma200", CoinQuote.decimal(indicators.sma200()));
+        body.put("volatility", CoinQuote.decimal(indicators.volatility()));
+        body.put("minPrice", CoinQuote.decimal(indicators.min()));
+        body.put("maxPrice", CoinQuote.decimal(indicators.max()));
+        body.put("samples", indicators.samples());
+        body.put("lastUpdated", PriceSeriesStore.toLocalDateTime(indicators.timestamp()));
+        return ResponseEntity.ok(body);
+    }
+
     @GetMapping("/stats/{symbol}")
     public ResponseEntity<Object> getCryptoStats(@PathVariable String symbol) {
         try {
@@ -136,26 +198,8 @@ public class CryptoChartController {
                 return ResponseEntity.notFound().build();
             }
 
-            List<CryptoData> last24h = cryptoService.getCryptoHistory(symbol, "24h");
-            List<CryptoData> last7d = cryptoService.getCryptoHistory(symbol, "7d");
-
-            BigDecimal minPrice24h = last24h.stream()
-                    .map(CryptoData::getPrice)
-                    .filter(price -> price != null)
-                    .min(BigDecimal::compareTo)
-                    .orElse(BigDecimal.ZERO);
-
-            BigDecimal maxPrice24h = last24h.stream()
-                    .map(CryptoData::getPrice)
-                    .filter(price -> price != null)
-                    .max(BigDecimal::compareTo)
-                    .orElse(BigDecimal.ZERO);
-
-            BigDecimal avgPrice24h = last24h.stream()
-                    .map(CryptoData::getPrice)
-                    .filter(price -> price != null)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(last24h.size()), 8, RoundingMode.HALF_UP);
+            PriceStats last24h = cryptoStatsService.stats(symbol, CryptoStatsService.DAY);
+            PriceStats last7d = cryptoStatsService.stats(symbol, CryptoStatsService.WEEK);
 
             Map<String, Object> stats = new HashMap<>();
             stats.put("symbol", symbol);
@@ -163,11 +207,11 @@ public class CryptoChartController {
             stats.put("marketCap", latestData.getMarketCap());
             stats.put("volume24h", latestData.getVolume24h());
             stats.put("percentChange24h", latestData.getPercentChange24h());
-            stats.put("minPrice24h", minPrice24h);
-            stats.put("maxPrice24h", maxPrice24h);
-            stats.put("avgPrice24h", avgPrice24h);
-            stats.put("dataPoints24h", last24h.size());
-            stats.put("dataPoints7d", last7d.size());
+            stats.put("minPrice24h", CoinQuote.decimal(last24h.min()));
+            stats.put("maxPrice24h", CoinQuote.decimal(last24h.max()));
+            stats.put("avgPrice24h", IndicatorMath.toDecimal(last24h.avg(), 8));
+            stats.put("dataPoints24h", last24h.samples());
+            stats.put("dataPoints7d", last7d.samples());
             stats.put("lastUpdated", latestData.getTimestamp());
 
             return ResponseEntity.ok(stats);
@@ -177,4 +221,64 @@ public class CryptoChartController {
             return ResponseEntity.internalServerError().build();
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Representation the message converters will pick for the chart: the binary series when
+     * {@code Accept} prefers it, JSON otherwise. Wildcards and a missing or unparsable header mean JSON,
+     * because the JSON converter is registered before the binary one.
+     */
+    private static String chartRepresentation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(acceptable);
+        } catch (IllegalArgumentException e) {
+            return "json";
+        }
+        for (MediaType type : acceptable) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+            if (type.isCompatibleWith(ChartSeriesHttpMessageConverter.MEDIA_TYPE)) {
+                return "series";
+            }
+        }
+        return "json";
+    }
+
+    /**
+     * Raw history of a symbol in {@code [from, to)} as NDJSON (default) or CSV, streamed row by row
+     * from the database so any range can be exported.
+     */
+    @GetMapping("/export/{symbol}")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @PathVariable String symbol,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        CryptoExportService.Format exportFormat;
+        try {
+            exportFormat = CryptoExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime until = to != null ? to : LocalDateTime.now();
+        if (!from.isBefore(until)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String fileName = symbol + "_" + from.toLocalDate() + "_" + until.toLocalDate() + "." + exportFormat.getExtension();
+        StreamingResponseBody body = out -> cryptoExportService.export(symbol, from, until, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
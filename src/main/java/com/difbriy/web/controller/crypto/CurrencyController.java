@@ -1,14 +1,17 @@
 package com.difbriy.web.controller.crypto;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.difbriy.web.dto.crypto.CachedQuotes;
+import com.difbriy.web.dto.crypto.CoinQuote;
 import com.difbriy.web.service.crypto.CryptoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -24,11 +27,20 @@ public class CurrencyController {
 
     CryptoService cryptoService;
     ObjectMapper objectMapper;
+    MarketDataCaching marketDataCaching;
 
 
     @GetMapping("/currency")
-    public ResponseEntity<List<Map<String, Object>>> getCurrencyData() throws IOException {
-        return cryptoService.fetchDataFromCoinGecko();
-
+    public ResponseEntity<List<CoinQuote>> getCurrencyData(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        CachedQuotes cached = cryptoService.getAllCoinsRefreshAhead();
+        // Время загрузки из API одинаково на всех узлах, читающих тот же all_coins из Redis
+        String etag = MarketDataCaching.etag("quotes", cached.fetchedAt().toEpochMilli());
+        if (MarketDataCaching.matches(ifNoneMatch, etag)) {
+            return marketDataCaching.notModified(etag).build();
+        }
+        return marketDataCaching.ok(etag)
+                .header(CryptoService.DATA_AGE_HEADER, String.valueOf(Math.max(0, cached.age(Instant.now()).toSeconds())))
+                .body(cached.quotes());
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.difbriy.web.controller.crypto;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Conditional GET for market data that only changes once per ingestion tick. The ETag is built from the
+ * tick version before the body is computed, so a matching {@code If-None-Match} is answered with 304
+ * without touching the data, and {@code Cache-Control: max-age} equals the tick interval.
+ */
+@Component
+class MarketDataCaching {
+
+    private final CacheControl cacheControl;
+
+    MarketDataCaching(@Value("${crypto.series.tick-interval:30s}") Duration tickInterval) {
+        // private: эндпоинты за аутентификацией, общие кэши их хранить не должны
+        this.cacheControl = CacheControl.maxAge(tickInterval).cachePrivate();
+    }
+
+    /**
+     * Weak tag: the same tick is served gzip-compressed or not, and Tomcat does not compress responses
+     * carrying a strong ETag.
+     */
+    static String etag(Object... parts) {
+        StringBuilder tag = new StringBuilder("W/\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                tag.append('-');
+            }
+            tag.append(parts[i]);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Whether {@code If-None-Match} lists the tag; weak comparison, as RFC 9110 requires for this header.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = opaque(candidate.trim());
+            if (tag.equals("*") || tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    ResponseEntity.BodyBuilder notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl);
+    }
+
+    ResponseEntity.BodyBuilder ok(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl);
+    }
+}
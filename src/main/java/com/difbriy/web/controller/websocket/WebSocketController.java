@@ -3,9 +3,14 @@ package com.difbriy.web.controller.websocket;
 import com.difbriy.web.dto.crypto.CryptoChartData;
 import com.difbriy.web.dto.crypto.PredictionRequestDto;
 import com.difbriy.web.dto.crypto.PredictionResponseDto;
+import com.difbriy.web.dto.crypto.PriceStats;
 import com.difbriy.web.entity.CryptoData;
 import com.difbriy.web.service.crypto.CryptoService;
+import com.difbriy.web.service.crypto.CryptoStatsService;
+import com.difbriy.web.service.crypto.SessionRateLimiter;
+import com.difbriy.web.service.crypto.delta.QuoteDeltaStream;
 import com.difbriy.web.locallm.service.CryptoPredictionLLMService;
+import com.fasterxml.jackson.databind.util.RawValue;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -14,11 +19,11 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
@@ -29,14 +34,30 @@ public class WebSocketController {
     CryptoService cryptoService;
     CryptoPredictionLLMService cryptoPredictionService;
     SimpMessagingTemplate messagingTemplate;
-
+    QuoteDeltaStream quoteDeltaStream;
+    SessionRateLimiter sessionRateLimiter;
+    CryptoStatsService cryptoStatsService;
+
+    /**
+     * The quotes go to {@code /user/topic/crypto/response}; the acknowledgement or rate-limit notice
+     * has its own destination so that it never mixes with the data there.
+     */
     @MessageMapping("/crypto/request")
-    @SendToUser("/topic/crypto/response")
+    @SendToUser(destinations = "/topic/crypto/status", broadcast = false)
     public Map<String, Object> handleCryptoRequest(SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = headerAccessor.getSessionId();
         log.info("Crypto data requested by session: {}", sessionId);
 
-        cryptoService.sendCryptoDataOnDemand();
+        if (!sessionRateLimiter.tryAcquire(sessionId)) {
+            log.warn("Crypto data request rate limited for session: {}", sessionId);
+            return Map.of(
+                    "type", "crypto_request",
+                    "message", "Too many requests, try again later",
+                    "sessionId", sessionId
+            );
+        }
+
+        cryptoService.sendCryptoDataOnDemand(sessionId);
 
         return Map.of(
                 "type", "crypto_request",
@@ -45,13 +66,28 @@ public class WebSocketController {
         );
     }
 
+    @SubscribeMapping("/crypto/delta/keyframe")
+    public RawValue handleKeyframeSubscription(SimpMessageHeaderAccessor headerAccessor) {
+        log.debug("Delta stream keyframe subscription from session: {}", headerAccessor.getSessionId());
+
+        return quoteDeltaStream.keyframe();
+    }
+
+    @MessageMapping("/crypto/delta/resync")
+    public void handleDeltaResync(SimpMessageHeaderAccessor headerAccessor) {
+        String sessionId = headerAccessor.getSessionId();
+        log.info("Delta stream resync requested by session: {}", sessionId);
+
+        quoteDeltaStream.sendKeyframe(sessionId);
+    }
+
     @MessageMapping("/crypto/single")
     public void handleSingleCryptoRequest(Map<String, Object> request, SimpMessageHeaderAccessor headerAccessor) {
         String sessionId = headerAccessor.getSessionId();
         Long coinId = Long.valueOf(request.get("coinId").toString());
         log.info("Single crypto data requested for coin ID: {} by session: {}", coinId, sessionId);
 
-        cryptoService.sendSingleCryptoData(coinId);
+        cryptoService.sendSingleCryptoData(coinId, sessionId);
     }
 
     @MessageMapping("/chart/request")
@@ -59,24 +95,16 @@ public class WebSocketController {
         String sessionId = headerAccessor.getSessionId();
         String symbol = (String) request.get("symbol");
         String period = (String) request.getOrDefault("period", "7d");
+        Integer maxPoints = request.get("maxPoints") != null ? Integer.valueOf(request.get("maxPoints").toString()) : null;
 
         log.info("Chart data requested for symbol: {} period: {} by session: {}", symbol, period, sessionId);
 
         try {
-            List<CryptoData> historyData = cryptoService.getCryptoHistory(symbol, period);
+            List<CryptoChartData.ChartPoint> chartPoints = cryptoService.getChartHistory(symbol, period, maxPoints);
 
-            if (!historyData.isEmpty()) {
+            if (!chartPoints.isEmpty()) {
                 CryptoData latestData = cryptoService.getLatestCryptoData(symbol);
 
-                List<CryptoChartData.ChartPoint> chartPoints = historyData.stream()
-                        .map(data -> new CryptoChartData.ChartPoint(
-                                data.getTimestamp(),
-                                data.getPrice(),
-                                data.getVolume24h(),
-                                data.getMarketCap()
-                        ))
-                        .collect(Collectors.toList());
-
                 CryptoChartData chartData = new CryptoChartData();
                 chartData.setSymbol(symbol);
                 chartData.setName(latestData != null ? latestData.getName() : symbol);
@@ -131,22 +159,7 @@ public class WebSocketController {
         try {
             CryptoData latestData = cryptoService.getLatestCryptoData(symbol);
             if (latestData != null) {
-                List<CryptoData> last24h = cryptoService.getCryptoHistory(symbol, "24h");
-
-                double minPrice24h = last24h.stream()
-                        .mapToDouble(data -> data.getPrice() != null ? data.getPrice().doubleValue() : 0.0)
-                        .min()
-                        .orElse(0.0);
-
-                double maxPrice24h = last24h.stream()
-                        .mapToDouble(data -> data.getPrice() != null ? data.getPrice().doubleValue() : 0.0)
-                        .max()
-                        .orElse(0.0);
-
-                double avgPrice24h = last24h.stream()
-                        .mapToDouble(data -> data.getPrice() != null ? data.getPrice().doubleValue() : 0.0)
-                        .average()
-                        .orElse(0.0);
+                PriceStats last24h = cryptoStatsService.stats(symbol, CryptoStatsService.DAY);
 
                 Map<String, Object> stats = Map.of(
                         "symbol", symbol,
@@ -154,10 +167,10 @@ public class WebSocketController {
                         "marketCap", latestData.getMarketCap(),
                         "volume24h", latestData.getVolume24h(),
                         "percentChange24h", latestData.getPercentChange24h(),
-                        "minPrice24h", minPrice24h,
-                        "maxPrice24h", maxPrice24h,
-                        "avgPrice24h", avgPrice24h,
-                        "dataPoints24h", last24h.size(),
+                        "minPrice24h", orZero(last24h.min()),
+                        "maxPrice24h", orZero(last24h.max()),
+                        "avgPrice24h", orZero(last24h.avg()),
+                        "dataPoints24h", last24h.samples(),
                         "lastUpdated", latestData.getTimestamp()
                 );
 
@@ -248,4 +261,8 @@ public class WebSocketController {
                     Map.of("error", "Error retrieving prediction history for symbol: " + symbol));
         }
     }
-}
\ No newline at end of file
+
+    private static double orZero(double value) {
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+}
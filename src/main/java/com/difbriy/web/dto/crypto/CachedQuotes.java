@@ -0,0 +1,23 @@
+package com.difbriy.web.dto.crypto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Quote list as stored in the quote cache, stamped with the time it was fetched from the upstream API.
+ * The stamp drives refresh-ahead: an entry older than the soft TTL is still served, but triggers a refresh.
+ */
+public record CachedQuotes(
+        Instant fetchedAt,
+        List<CoinQuote> quotes
+) {
+
+    public Duration age(Instant now) {
+        return Duration.between(fetchedAt, now);
+    }
+
+    public boolean isOlderThan(Duration ttl, Instant now) {
+        return age(now).compareTo(ttl) > 0;
+    }
+}
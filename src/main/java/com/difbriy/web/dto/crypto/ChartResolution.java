@@ -0,0 +1,38 @@
+package com.difbriy.web.dto.crypto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes kept in {@code crypto_ohlcv}. Fine resolutions have their own short retention,
+ * coarse ones live as long as the raw data.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ChartResolution {
+    ONE_MINUTE("1m", Duration.ofMinutes(1), Duration.ofDays(2)),
+    FIVE_MINUTES("5m", Duration.ofMinutes(5), Duration.ofDays(30)),
+    ONE_HOUR("1h", Duration.ofHours(1), null),
+    ONE_DAY("1d", Duration.ofDays(1), null);
+
+    private final String code;
+    private final Duration bucket;
+    private final Duration retention;
+
+    /**
+     * Start of the bucket the timestamp falls into, aligned the same way as the V16 backfill.
+     */
+    public LocalDateTime bucketStart(LocalDateTime timestamp) {
+        return switch (this) {
+            case ONE_MINUTE -> timestamp.truncatedTo(ChronoUnit.MINUTES);
+            case FIVE_MINUTES -> timestamp.truncatedTo(ChronoUnit.HOURS)
+                    .plusMinutes(timestamp.getMinute() / 5 * 5L);
+            case ONE_HOUR -> timestamp.truncatedTo(ChronoUnit.HOURS);
+            case ONE_DAY -> timestamp.truncatedTo(ChronoUnit.DAYS);
+        };
+    }
+}
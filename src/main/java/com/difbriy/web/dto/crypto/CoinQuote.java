@@ -0,0 +1,48 @@
+package com.difbriy.web.dto.crypto;
+
+import com.difbriy.web.serializer.CoinQuoteJsonSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+
+/**
+ * USD quote of one coin from the CoinMarketCap listings.
+ * Numeric fields are primitives, a missing value is stored as {@link Double#NaN}.
+ * This is the one quote type used from fetch through persistence, cache and broadcast.
+ */
+@JsonSerialize(using = CoinQuoteJsonSerializer.class)
+public record CoinQuote(
+        long id,
+        String name,
+        String symbol,
+        String slug,
+        int rank,
+        double circulatingSupply,
+        double totalSupply,
+        double maxSupply,
+        double price,
+        double volume24h,
+        double volumeChange24h,
+        double percentChange1h,
+        double percentChange24h,
+        double percentChange7d,
+        double percentChange30d,
+        double percentChange60d,
+        double percentChange90d,
+        double marketCap,
+        double marketCapDominance,
+        double fullyDilutedMarketCap,
+        String lastUpdated
+) {
+
+    public static boolean isPresent(double value) {
+        return !Double.isNaN(value);
+    }
+
+    /**
+     * Converts a quote field to {@link BigDecimal} at the persistence boundary, {@code null} when missing.
+     */
+    public static BigDecimal decimal(double value) {
+        return isPresent(value) ? BigDecimal.valueOf(value) : null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.difbriy.web.dto.crypto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -30,5 +31,20 @@ public class CryptoChartData {
         private BigDecimal price;
         private BigDecimal volume;
         private BigDecimal marketCap;
+
+        // Заполняются только для точек из OHLCV-агрегатов, price = close бакета
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private BigDecimal open;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private BigDecimal high;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private BigDecimal low;
+
+        public ChartPoint(LocalDateTime timestamp, BigDecimal price, BigDecimal volume, BigDecimal marketCap) {
+            this.timestamp = timestamp;
+            this.price = price;
+            this.volume = volume;
+            this.marketCap = marketCap;
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.difbriy.web.dto.crypto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One ingestion tick: the quotes fetched together, with a sequence number that grows per tick.
+ */
+public record MarketSnapshot(
+        long sequence,
+        Instant fetchedAt,
+        List<CoinQuote> quotes
+) {
+}
@@ -0,0 +1,17 @@
+package com.difbriy.web.dto.crypto;
+
+/**
+ * Aggregate of one symbol's prices over a window. {@code samples} counts every row in the window,
+ * the price aggregates skip rows without a price and are {@link Double#NaN} when there are none.
+ */
+public record PriceStats(
+        int samples,
+        double min,
+        double max,
+        double avg,
+        double first,
+        double last
+) {
+
+    public static final PriceStats EMPTY = new PriceStats(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+}
@@ -1,13 +1,20 @@
 package com.difbriy.web.locallm.service;
 
 import com.difbriy.web.dto.crypto.CryptoAnalysisDataDto;
+import com.difbriy.web.dto.crypto.CryptoChartData;
 import com.difbriy.web.dto.crypto.PredictionRequestDto;
 import com.difbriy.web.dto.crypto.PredictionResponseDto;
 import com.difbriy.web.dto.crypto.PriceDataPoint;
+import com.difbriy.web.dto.crypto.PriceStats;
 import com.difbriy.web.entity.CryptoData;
 import com.difbriy.web.entity.CryptoPrediction;
 import com.difbriy.web.repository.CryptoDataRepository;
 import com.difbriy.web.repository.CryptoPredictionRepository;
+import com.difbriy.web.service.crypto.CryptoService;
+import com.difbriy.web.service.crypto.CryptoStatsService;
+import com.difbriy.web.service.crypto.indicator.IndicatorEngine;
+import com.difbriy.web.service.crypto.indicator.IndicatorMath;
+import com.difbriy.web.service.crypto.indicator.IndicatorSnapshot;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -26,10 +33,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CryptoPredictionLLMService {
 
+    private static final int HISTORY_POINTS = 180;
+
     private final CryptoDataRepository cryptoDataRepository;
     private final CryptoPredictionRepository cryptoPredictionRepository;
     private final LocalLLMClient localLLMClient;
     private final ObjectMapper objectMapper;
+    private final IndicatorEngine indicatorEngine;
+    private final CryptoService cryptoService;
+    private final CryptoStatsService cryptoStatsService;
 
 
     public PredictionResponseDto generatePrediction(PredictionRequestDto request) {
@@ -64,19 +76,20 @@ public class CryptoPredictionLLMService {
             throw new RuntimeException("No data found for symbol: " + request.getSymbol());
         }
 
-        LocalDateTime startTime = LocalDateTime.now().minusMonths(6); // Последние 6 месяцев
-        List<CryptoData> historicalData = cryptoDataRepository.findLast6MonthsBySymbol(
-                request.getSymbol(), startTime);
+        // Дневные роллапы за полгода, прорежённые до HISTORY_POINTS, а не сырые тики
+        List<CryptoChartData.ChartPoint> history = cryptoService.getChartHistory(
+                request.getSymbol(), "6m", HISTORY_POINTS);
 
-        List<PriceDataPoint> pricePoints = historicalData.stream()
-                .map(data -> PriceDataPoint.builder()
-                        .timestamp(data.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                        .price(data.getPrice())
-                        .volume(data.getVolume24h())
+        List<PriceDataPoint> pricePoints = history.stream()
+                .map(point -> PriceDataPoint.builder()
+                        .timestamp(point.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                        .price(point.getPrice())
+                        .volume(point.getVolume())
                         .build())
                 .collect(Collectors.toList());
 
-        String technicalAnalysis = calculateTechnicalIndicators(historicalData);
+        String technicalAnalysis = calculateTechnicalIndicators(request.getSymbol(), latestData, history);
+        IndicatorSnapshot indicators = indicatorEngine.get(request.getSymbol());
 
         List<String> recentNews = getRecentNews(request.getSymbol());
 
@@ -89,10 +102,10 @@ public class CryptoPredictionLLMService {
                 .historicalPrices(pricePoints)
                 .recentNews(recentNews)
                 .technicalAnalysis(technicalAnalysis)
-                .volatility(calculateVolatility(historicalData))
-                .rsi(calculateRSI(historicalData))
-                .movingAverage20(calculateMovingAverage(historicalData, 20))
-                .movingAverage50(calculateMovingAverage(historicalData, 50))
+                .volatility(indicator(indicators == null ? Double.NaN : indicators.volatility(), BigDecimal.ZERO, 4))
+                .rsi(indicator(indicators == null ? Double.NaN : indicators.rsi(), BigDecimal.valueOf(50), 4))
+                .movingAverage20(indicator(indicators == null ? Double.NaN : indicators.sma20(), BigDecimal.ZERO, 8))
+                .movingAverage50(indicator(indicators == null ? Double.NaN : indicators.sma50(), BigDecimal.ZERO, 8))
                 .build();
     }
 
@@ -333,96 +346,37 @@ public class CryptoPredictionLLMService {
                 .build();
     }
 
-    private String calculateTechnicalIndicators(List<CryptoData> historicalData) {
-        if (historicalData.size() < 20) {
+    private String calculateTechnicalIndicators(String symbol, CryptoData latest,
+                                                List<CryptoChartData.ChartPoint> history) {
+        PriceStats week = cryptoStatsService.stats(symbol, CryptoStatsService.WEEK);
+        if (week.samples() < 2 || history.isEmpty()) {
             return "Недостаточно данных для технического анализа";
         }
 
         StringBuilder analysis = new StringBuilder();
 
-        CryptoData latest = historicalData.get(historicalData.size() - 1);
-        CryptoData weekAgo = historicalData.get(Math.max(0, historicalData.size() - 7));
-        
-        if (latest.getPrice().compareTo(weekAgo.getPrice()) > 0) {
+        if (week.last() > week.first()) {
             analysis.append("Восходящий тренд за неделю. ");
         } else {
             analysis.append("Нисходящий тренд за неделю. ");
         }
 
-        BigDecimal avgVolume = historicalData.stream()
-                .map(CryptoData::getVolume24h)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(historicalData.size()), 2, RoundingMode.HALF_UP);
+        double[] volumes = new double[history.size()];
+        for (int i = 0; i < volumes.length; i++) {
+            BigDecimal volume = history.get(i).getVolume();
+            volumes[i] = volume != null ? volume.doubleValue() : 0;
+        }
+        double avgVolume = IndicatorMath.mean(volumes, 0, volumes.length);
 
-        if (latest.getVolume24h().compareTo(avgVolume.multiply(BigDecimal.valueOf(1.5))) > 0) {
+        if (latest.getVolume24h() != null && latest.getVolume24h().doubleValue() > avgVolume * 1.5) {
             analysis.append("Высокий объем торгов. ");
         }
 
         return analysis.toString();
     }
 
-    private BigDecimal calculateVolatility(List<CryptoData> historicalData) {
-        if (historicalData.size() < 2) return BigDecimal.ZERO;
-
-        List<BigDecimal> returns = new ArrayList<>();
-        for (int i = 1; i < historicalData.size(); i++) {
-            BigDecimal prevPrice = historicalData.get(i - 1).getPrice();
-            BigDecimal currPrice = historicalData.get(i).getPrice();
-            BigDecimal returnRate = currPrice.subtract(prevPrice).divide(prevPrice, 4, RoundingMode.HALF_UP);
-            returns.add(returnRate);
-        }
-
-        BigDecimal mean = returns.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(returns.size()), 4, RoundingMode.HALF_UP);
-
-        BigDecimal variance = returns.stream()
-                .map(r -> r.subtract(mean).pow(2))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(returns.size()), 4, RoundingMode.HALF_UP);
-
-        return variance.sqrt(new java.math.MathContext(4)).multiply(BigDecimal.valueOf(100));
-    }
-
-    private BigDecimal calculateRSI(List<CryptoData> historicalData) {
-        if (historicalData.size() < 14) return BigDecimal.valueOf(50);
-
-        List<BigDecimal> gains = new ArrayList<>();
-        List<BigDecimal> losses = new ArrayList<>();
-
-        for (int i = 1; i < Math.min(15, historicalData.size()); i++) {
-            BigDecimal change = historicalData.get(i).getPrice().subtract(historicalData.get(i - 1).getPrice());
-            if (change.compareTo(BigDecimal.ZERO) > 0) {
-                gains.add(change);
-                losses.add(BigDecimal.ZERO);
-            } else {
-                gains.add(BigDecimal.ZERO);
-                losses.add(change.abs());
-            }
-        }
-
-        BigDecimal avgGain = gains.stream().reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(gains.size()), 4, RoundingMode.HALF_UP);
-        BigDecimal avgLoss = losses.stream().reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(losses.size()), 4, RoundingMode.HALF_UP);
-
-        if (avgLoss.equals(BigDecimal.ZERO)) return BigDecimal.valueOf(100);
-
-        BigDecimal rs = avgGain.divide(avgLoss, 4, RoundingMode.HALF_UP);
-        return BigDecimal.valueOf(100).subtract(
-                BigDecimal.valueOf(100).divide(BigDecimal.ONE.add(rs), 2, RoundingMode.HALF_UP)
-        );
-    }
-
-    private BigDecimal calculateMovingAverage(List<CryptoData> historicalData, int period) {
-        if (historicalData.size() < period) return BigDecimal.ZERO;
-
-        return historicalData.stream()
-                .skip(Math.max(0, historicalData.size() - period))
-                .map(CryptoData::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(period), 8, RoundingMode.HALF_UP);
+    private static BigDecimal indicator(double value, BigDecimal fallback, int scale) {
+        return Double.isNaN(value) ? fallback : IndicatorMath.toDecimal(value, scale);
     }
 
     private List<String> getRecentNews(String symbol) {
@@ -1,13 +1,18 @@
 package com.difbriy.web.locallm.service;
 
+import com.difbriy.web.config.MarketDataHttpClients;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +21,8 @@ import java.util.Map;
 @Slf4j
 public class LocalLLMClient {
 
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
     @Value("${local.llm.base-url:http://localhost:11434}")
     private String baseUrl;
 
@@ -28,7 +35,7 @@ public class LocalLLMClient {
     @Value("${local.llm.max-tokens:1000}")
     private int maxTokens;
 
-    private final RestTemplate restTemplate;
+    private final MarketDataHttpClients httpClients;
     private final ObjectMapper objectMapper;
 
     /**
@@ -47,17 +54,18 @@ public class LocalLLMClient {
                 "num_predict", maxTokens
             ));
 
-            String response = restTemplate.postForObject(
-                baseUrl + "/api/generate",
-                request,
-                String.class
-            );
-
-            if (response != null) {
-                JsonNode jsonResponse = objectMapper.readTree(response);
-                String generatedText = jsonResponse.get("response").asText();
-                log.info("Received response from LLM, length: {}", generatedText.length());
-                return generatedText;
+            Request httpRequest = new Request.Builder()
+                .url(baseUrl + "/api/generate")
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(request), JSON))
+                .build();
+
+            try (Response response = httpClients.getLocalLlm().newCall(httpRequest).execute()) {
+                if (response.isSuccessful()) {
+                    JsonNode jsonResponse = objectMapper.readTree(response.body().byteStream());
+                    String generatedText = jsonResponse.get("response").asText();
+                    log.info("Received response from LLM, length: {}", generatedText.length());
+                    return generatedText;
+                }
             }
 
             return "Ошибка: LLM не вернул ответ";
@@ -73,7 +81,7 @@ public class LocalLLMClient {
      */
     public boolean isAvailable() {
         try {
-            String response = restTemplate.getForObject(baseUrl + "/api/tags", String.class);
+            String response = getTags();
             return response != null && response.contains(model);
         } catch (Exception e) {
             log.warn("Local LLM not available: {}", e.getMessage());
@@ -86,10 +94,18 @@ public class LocalLLMClient {
      */
     public String getAvailableModels() {
         try {
-            return restTemplate.getForObject(baseUrl + "/api/tags", String.class);
+            String response = getTags();
+            return response != null ? response : "Ошибка при получении списка моделей";
         } catch (Exception e) {
             log.error("Error getting available models: {}", e.getMessage());
             return "Ошибка при получении списка моделей";
         }
     }
+
+    private String getTags() throws IOException {
+        Request request = new Request.Builder().url(baseUrl + "/api/tags").build();
+        try (Response response = httpClients.getLocalLlm().newCall(request).execute()) {
+            return response.isSuccessful() ? response.body().string() : null;
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package com.difbriy.web.repository;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Bulk write path for {@code crypto_data} snapshots.
+ * {@code CryptoData} uses an IDENTITY id, so Hibernate sends one INSERT per row; here the rows
+ * go out as JDBC batches, which the driver rewrites to multi-row inserts ({@code reWriteBatchedInserts}).
+ */
+@Repository
+@Slf4j
+public class CryptoDataBatchWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO crypto_data (symbol, name, price, market_cap, volume_24h, circulating_supply,
+                                     total_supply, max_supply, percent_change_1h, percent_change_24h,
+                                     percent_change_7d, rank, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Переносит только что вставленный тик в crypto_latest; при повторе тикера берётся лучший rank
+    private static final String UPSERT_LATEST_SQL = """
+            INSERT INTO crypto_latest (symbol, id, name, price, market_cap, volume_24h, circulating_supply,
+                                       total_supply, max_supply, percent_change_1h, percent_change_24h,
+                                       percent_change_7d, rank, timestamp)
+            SELECT DISTINCT ON (symbol)
+                   symbol, id, name, price, market_cap, volume_24h, circulating_supply,
+                   total_supply, max_supply, percent_change_1h, percent_change_24h,
+                   percent_change_7d, rank, timestamp
+            FROM crypto_data
+            WHERE timestamp = ?
+            ORDER BY symbol, rank ASC NULLS LAST
+            ON CONFLICT (symbol) DO UPDATE SET
+                id = EXCLUDED.id,
+                name = EXCLUDED.name,
+                price = EXCLUDED.price,
+                market_cap = EXCLUDED.market_cap,
+                volume_24h = EXCLUDED.volume_24h,
+                circulating_supply = EXCLUDED.circulating_supply,
+                total_supply = EXCLUDED.total_supply,
+                max_supply = EXCLUDED.max_supply,
+                percent_change_1h = EXCLUDED.percent_change_1h,
+                percent_change_24h = EXCLUDED.percent_change_24h,
+                percent_change_7d = EXCLUDED.percent_change_7d,
+                rank = EXCLUDED.rank,
+                timestamp = EXCLUDED.timestamp
+            WHERE crypto_latest.timestamp <= EXCLUDED.timestamp
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Timer flushTimer;
+    private final Counter rowsCounter;
+
+    public CryptoDataBatchWriter(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${crypto.persistence.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("crypto.data.flush")
+                .description("Time to write one batch of crypto_data snapshots")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rowsCounter = meterRegistry.counter("crypto.data.rows.written");
+    }
+
+    /**
+     * Inserts one snapshot row per quote, all with the same timestamp, and moves {@code crypto_latest}
+     * to this tick in the same transaction.
+     */
+    @Transactional
+    public int write(List<CoinQuote> quotes, LocalDateTime timestamp) {
+        if (quotes.isEmpty()) {
+            return 0;
+        }
+        // Postgres хранит микросекунды: усечение гарантирует, что WHERE timestamp = ? найдёт вставленные строки
+        LocalDateTime tickTime = timestamp.truncatedTo(ChronoUnit.MICROS);
+        flushTimer.record(() -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, quotes, batchSize, (ps, quote) -> bind(ps, quote, tickTime));
+            jdbcTemplate.update(UPSERT_LATEST_SQL, tickTime);
+        });
+        rowsCounter.increment(quotes.size());
+        log.debug("Wrote {} crypto_data rows in batches of {}", quotes.size(), batchSize);
+        return quotes.size();
+    }
+
+    private static void bind(PreparedStatement ps, CoinQuote quote, LocalDateTime timestamp) throws SQLException {
+        ps.setString(1, quote.symbol());
+        ps.setString(2, quote.name());
+        ps.setBigDecimal(3, CoinQuote.decimal(quote.price()));
+        ps.setBigDecimal(4, CoinQuote.decimal(quote.marketCap()));
+        ps.setBigDecimal(5, CoinQuote.decimal(quote.volume24h()));
+        ps.setBigDecimal(6, CoinQuote.decimal(quote.circulatingSupply()));
+        ps.setBigDecimal(7, CoinQuote.decimal(quote.totalSupply()));
+        ps.setBigDecimal(8, CoinQuote.decimal(quote.maxSupply()));
+        ps.setBigDecimal(9, CoinQuote.decimal(quote.percentChange1h()));
+        ps.setBigDecimal(10, CoinQuote.decimal(quote.percentChange24h()));
+        ps.setBigDecimal(11, CoinQuote.decimal(quote.percentChange7d()));
+        if (quote.rank() > 0) {
+            ps.setInt(12, quote.rank());
+        } else {
+            ps.setNull(12, Types.INTEGER);
+        }
+        ps.setObject(13, timestamp);
+    }
+}
@@ -27,11 +27,9 @@ public interface CryptoDataRepository extends JpaRepository<CryptoData, Long> {
 
     @Query("SELECT c FROM CryptoData c WHERE c.symbol = :symbol AND c.timestamp >= :startTime ORDER BY c.timestamp ASC")
     List<CryptoData> findLast30DaysBySymbol(@Param("symbol") String symbol, @Param("startTime") LocalDateTime startTime);
-    
-    @Query("SELECT c FROM CryptoData c WHERE c.symbol = :symbol AND c.timestamp >= :startTime ORDER BY c.timestamp ASC")
-    List<CryptoData> findLast6MonthsBySymbol(@Param("symbol") String symbol, @Param("startTime") LocalDateTime startTime);
 
-    @Query("SELECT c FROM CryptoData c WHERE c.timestamp = (SELECT MAX(c2.timestamp) FROM CryptoData c2 WHERE c2.symbol = c.symbol) ORDER BY c.rank ASC")
+    // crypto_latest (V17) хранит по одной строке на символ, обновляется при каждой записи тика
+    @Query(value = "SELECT * FROM crypto_latest ORDER BY rank ASC NULLS LAST", nativeQuery = true)
     List<CryptoData> findLatestDataForAllCryptos();
 
     @Query("SELECT c FROM CryptoData c WHERE c.symbol = :symbol ORDER BY c.timestamp DESC LIMIT 1")
@@ -0,0 +1,159 @@
+package com.difbriy.web.repository;
+
+import com.difbriy.web.dto.crypto.ChartResolution;
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.dto.crypto.CryptoChartData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Access to the {@code crypto_ohlcv} rollups (V16). Each tick is folded into the open bucket of every
+ * resolution with a single upsert per row, so the rollups never have to be recomputed from raw data.
+ */
+@Repository
+@Slf4j
+public class CryptoOhlcvRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO crypto_ohlcv (symbol, resolution, bucket_start, open, high, low, close,
+                                      volume_24h, market_cap, samples)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 1)
+            ON CONFLICT (symbol, resolution, bucket_start) DO UPDATE SET
+                high = GREATEST(crypto_ohlcv.high, EXCLUDED.high),
+                low = LEAST(crypto_ohlcv.low, EXCLUDED.low),
+                close = EXCLUDED.close,
+                volume_24h = EXCLUDED.volume_24h,
+                market_cap = EXCLUDED.market_cap,
+                samples = crypto_ohlcv.samples + 1
+            """;
+
+    private static final String SELECT_SQL = """
+            SELECT bucket_start, open, high, low, close, volume_24h, market_cap
+            FROM crypto_ohlcv
+            WHERE symbol = ? AND resolution = ? AND bucket_start >= ?
+            ORDER BY bucket_start ASC
+            """;
+
+    private static final RowMapper<CryptoChartData.ChartPoint> CHART_POINT_MAPPER = (rs, rowNum) -> {
+        CryptoChartData.ChartPoint point = new CryptoChartData.ChartPoint(
+                rs.getTimestamp("bucket_start").toLocalDateTime(),
+                rs.getBigDecimal("close"),
+                rs.getBigDecimal("volume_24h"),
+                rs.getBigDecimal("market_cap"));
+        point.setOpen(rs.getBigDecimal("open"));
+        point.setHigh(rs.getBigDecimal("high"));
+        point.setLow(rs.getBigDecimal("low"));
+        return point;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer upsertTimer;
+    // Растёт только после коммита upsert, так что по версии никогда не видно ещё не записанных бакетов
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastTickMillis;
+
+    public CryptoOhlcvRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.upsertTimer = Timer.builder("crypto.ohlcv.upsert")
+                .description("Time to fold one tick into the OHLCV rollups")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Folds one tick into every resolution. Quotes without a price are skipped, and only the first
+     * (best ranked) quote per symbol is used because the listings can repeat a ticker.
+     */
+    @Transactional
+    public int upsert(List<CoinQuote> quotes, LocalDateTime timestamp) {
+        List<CoinQuote> priced = new ArrayList<>(quotes.size());
+        Set<String> seen = new HashSet<>();
+        for (CoinQuote quote : quotes) {
+            if (quote.symbol() != null && CoinQuote.isPresent(quote.price()) && seen.add(quote.symbol())) {
+                priced.add(quote);
+            }
+        }
+        if (priced.isEmpty()) {
+            return 0;
+        }
+
+        List<BucketRow> rows = new ArrayList<>(priced.size() * ChartResolution.values().length);
+        for (ChartResolution resolution : ChartResolution.values()) {
+            Timestamp bucketStart = Timestamp.valueOf(resolution.bucketStart(timestamp));
+            for (CoinQuote quote : priced) {
+                rows.add(new BucketRow(quote, resolution.getCode(), bucketStart));
+            }
+        }
+        upsertTimer.record(() -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), CryptoOhlcvRepository::bind));
+
+        long tickMillis = timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastTickMillis = tickMillis;
+                version.incrementAndGet();
+            }
+        });
+        return rows.size();
+    }
+
+    /**
+     * Number of upserts committed by this node. Bumped after the transaction commits, so a reader that
+     * takes the version before querying the rollups never sees a version newer than the rows it reads.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Tick time (epoch millis) of the last committed upsert, {@code 0} before the first one. Together with
+     * {@link #version()} it tells writes of different nodes and restarts apart.
+     */
+    public long lastTickMillis() {
+        return lastTickMillis;
+    }
+
+    public List<CryptoChartData.ChartPoint> findBuckets(String symbol, ChartResolution resolution, LocalDateTime from) {
+        return jdbcTemplate.query(SELECT_SQL, CHART_POINT_MAPPER, symbol, resolution.getCode(), Timestamp.valueOf(from));
+    }
+
+    public int deleteBefore(ChartResolution resolution, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM crypto_ohlcv WHERE resolution = ? AND bucket_start < ?",
+                resolution.getCode(), Timestamp.valueOf(cutoff));
+    }
+
+    private static void bind(PreparedStatement ps, BucketRow row) throws SQLException {
+        CoinQuote quote = row.quote();
+        BigDecimal price = CoinQuote.decimal(quote.price());
+        ps.setString(1, quote.symbol());
+        ps.setString(2, row.resolution());
+        ps.setTimestamp(3, row.bucketStart());
+        ps.setBigDecimal(4, price);
+        ps.setBigDecimal(5, price);
+        ps.setBigDecimal(6, price);
+        ps.setBigDecimal(7, price);
+        ps.setBigDecimal(8, CoinQuote.decimal(quote.volume24h()));
+        ps.setBigDecimal(9, CoinQuote.decimal(quote.marketCap()));
+    }
+
+    private record BucketRow(CoinQuote quote, String resolution, Timestamp bucketStart) {
+    }
+}
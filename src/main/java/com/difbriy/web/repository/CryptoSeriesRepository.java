@@ -0,0 +1,92 @@
+package com.difbriy.web.repository;
+
+import com.difbriy.web.dto.crypto.PriceStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Row-streaming reads over {@code crypto_data} for bulk consumers that must not materialise entities.
+ * The Postgres driver only uses a server-side cursor inside a transaction, hence {@code readOnly} transactions.
+ */
+@Repository
+public class CryptoSeriesRepository {
+
+    private static final String SERIES_SINCE_SQL = """
+            SELECT symbol, timestamp, price, volume_24h, market_cap
+            FROM crypto_data
+            WHERE timestamp >= ?
+            ORDER BY symbol, timestamp
+            """;
+
+    private static final String SYMBOL_RANGE_SQL = """
+            SELECT timestamp, name, price, market_cap, volume_24h, circulating_supply, total_supply, max_supply,
+                   percent_change_1h, percent_change_24h, percent_change_7d, rank
+            FROM crypto_data
+            WHERE symbol = ? AND timestamp >= ? AND timestamp < ?
+            ORDER BY timestamp
+            """;
+
+    // Один агрегирующий проход по (symbol, timestamp), без выгрузки строк в приложение
+    private static final String PRICE_STATS_SQL = """
+            SELECT count(*) AS samples,
+                   min(price) AS min_price,
+                   max(price) AS max_price,
+                   avg(price) AS avg_price,
+                   (array_agg(price ORDER BY timestamp ASC) FILTER (WHERE price IS NOT NULL))[1] AS first_price,
+                   (array_agg(price ORDER BY timestamp DESC) FILTER (WHERE price IS NOT NULL))[1] AS last_price
+            FROM crypto_data
+            WHERE symbol = ? AND timestamp >= ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CryptoSeriesRepository(DataSource dataSource,
+                                  @Value("${crypto.series.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Streams price, volume and market cap of every symbol since {@code from}, grouped by symbol in time order.
+     */
+    @Transactional(readOnly = true)
+    public void streamSeriesSince(LocalDateTime from, RowCallbackHandler handler) {
+        jdbcTemplate.query(SERIES_SINCE_SQL, handler, from);
+    }
+
+    /**
+     * Streams every stored column of one symbol in {@code [from, to)} in time order, {@code fetch-size} rows at a time.
+     */
+    @Transactional(readOnly = true)
+    public void streamSymbolRange(String symbol, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        jdbcTemplate.query(SYMBOL_RANGE_SQL, handler, symbol, from, to);
+    }
+
+    /**
+     * Min, max, average, first and last price of the symbol since {@code from}, aggregated by Postgres.
+     */
+    @Transactional(readOnly = true)
+    public PriceStats priceStatsSince(String symbol, LocalDateTime from) {
+        return jdbcTemplate.queryForObject(PRICE_STATS_SQL, (rs, rowNum) -> new PriceStats(
+                rs.getInt("samples"),
+                column(rs, "min_price"),
+                column(rs, "max_price"),
+                column(rs, "avg_price"),
+                column(rs, "first_price"),
+                column(rs, "last_price")), symbol, from);
+    }
+
+    private static double column(ResultSet rs, String name) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(name);
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
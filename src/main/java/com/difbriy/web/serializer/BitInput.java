@@ -0,0 +1,40 @@
+package com.difbriy.web.serializer;
+
+import java.io.EOFException;
+
+/**
+ * Reader for bits written by {@link BitOutput}.
+ */
+final class BitInput {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int bitPosition;
+
+    BitInput(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.limit = buffer.length * 8;
+        this.bitPosition = offset * 8;
+    }
+
+    boolean readBit() throws EOFException {
+        if (bitPosition >= limit) {
+            throw new EOFException("Bit stream ended");
+        }
+        boolean bit = (buffer[bitPosition >>> 3] & (0x80 >>> (bitPosition & 7))) != 0;
+        bitPosition++;
+        return bit;
+    }
+
+    long readBits(int count) throws EOFException {
+        if (bitPosition + count > limit) {
+            throw new EOFException("Bit stream ended");
+        }
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = (value << 1) | ((buffer[bitPosition >>> 3] >>> (7 - (bitPosition & 7))) & 1);
+            bitPosition++;
+        }
+        return value;
+    }
+}
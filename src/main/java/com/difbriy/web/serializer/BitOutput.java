@@ -0,0 +1,48 @@
+package com.difbriy.web.serializer;
+
+import java.util.Arrays;
+
+/**
+ * Append-only big-endian bit buffer.
+ */
+final class BitOutput {
+
+    private byte[] buffer;
+    private int bitPosition;
+
+    BitOutput(int expectedBytes) {
+        this.buffer = new byte[Math.max(16, expectedBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        ensureCapacity(1);
+        if (bit) {
+            buffer[bitPosition >>> 3] |= (byte) (0x80 >>> (bitPosition & 7));
+        }
+        bitPosition++;
+    }
+
+    /**
+     * Writes the low {@code count} bits of {@code value}, most significant first.
+     */
+    void writeBits(long value, int count) {
+        ensureCapacity(count);
+        for (int i = count - 1; i >= 0; i--) {
+            if (((value >>> i) & 1L) != 0) {
+                buffer[bitPosition >>> 3] |= (byte) (0x80 >>> (bitPosition & 7));
+            }
+            bitPosition++;
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, (bitPosition + 7) >>> 3);
+    }
+
+    private void ensureCapacity(int bits) {
+        int required = (bitPosition + bits + 7) >>> 3;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.difbriy.web.serializer;
+
+import com.difbriy.web.dto.crypto.CryptoChartData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact columnar binary form of {@link CryptoChartData} for clients loading long periods.
+ * <p>
+ * Layout: format version, symbol and name, the header values, point count and a flags byte, followed by a
+ * bit stream holding one column after another. Timestamps (epoch millis) are delta-of-delta encoded and every
+ * numeric column is XOR-compressed against the previous value, as in Facebook's Gorilla. Regular 30-second
+ * ticks cost a few bits per timestamp and unchanged values a single bit. Values travel as {@code double},
+ * a missing one as NaN; decoding gives {@link BigDecimal#valueOf(double)} and {@code null} for NaN.
+ * Timestamps are kept to the millisecond in the server time zone, like the JSON form.
+ */
+public final class ChartSeriesCodec {
+
+    public static final String MEDIA_TYPE = "application/x-chart-series";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int FLAG_OHLC = 1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private ChartSeriesCodec() {
+    }
+
+    public static byte[] encode(CryptoChartData chart) throws IOException {
+        List<CryptoChartData.ChartPoint> points = chart.getData() != null ? chart.getData() : List.of();
+        boolean ohlc = points.stream().anyMatch(point -> point.getOpen() != null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + points.size() * 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(chart.getSymbol() != null ? chart.getSymbol() : "");
+            out.writeUTF(chart.getName() != null ? chart.getName() : "");
+            out.writeDouble(column(chart.getCurrentPrice()));
+            out.writeDouble(column(chart.getPriceChange24h()));
+            out.writeDouble(column(chart.getPercentChange24h()));
+            out.writeDouble(column(chart.getMarketCap()));
+            out.writeDouble(column(chart.getVolume24h()));
+            out.writeLong(chart.getLastUpdated() != null ? toMillis(chart.getLastUpdated()) : NO_TIMESTAMP);
+            out.writeInt(points.size());
+            out.writeByte(ohlc ? FLAG_OHLC : 0);
+        }
+
+        BitOutput bits = new BitOutput(points.size() * 8);
+        writeTimestamps(bits, points);
+        writeColumn(bits, points, PointColumn.PRICE);
+        writeColumn(bits, points, PointColumn.VOLUME);
+        writeColumn(bits, points, PointColumn.MARKET_CAP);
+        if (ohlc) {
+            writeColumn(bits, points, PointColumn.OPEN);
+            writeColumn(bits, points, PointColumn.HIGH);
+            writeColumn(bits, points, PointColumn.LOW);
+        }
+        bytes.write(bits.toByteArray());
+        return bytes.toByteArray();
+    }
+
+    public static CryptoChartData decode(byte[] payload) throws IOException {
+        CryptoChartData chart = new CryptoChartData();
+        int size;
+        boolean ohlc;
+        ByteArrayInputStream bytes = new ByteArrayInputStream(payload);
+        try (DataInputStream in = new DataInputStream(bytes)) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported chart series format version " + version);
+            }
+            chart.setSymbol(in.readUTF());
+            chart.setName(in.readUTF());
+            chart.setCurrentPrice(decimal(in.readDouble()));
+            chart.setPriceChange24h(decimal(in.readDouble()));
+            chart.setPercentChange24h(decimal(in.readDouble()));
+            chart.setMarketCap(decimal(in.readDouble()));
+            chart.setVolume24h(decimal(in.readDouble()));
+            long lastUpdated = in.readLong();
+            chart.setLastUpdated(lastUpdated != NO_TIMESTAMP ? toLocalDateTime(lastUpdated) : null);
+            size = in.readInt();
+            ohlc = (in.readByte() & FLAG_OHLC) != 0;
+        }
+        // Каждая точка занимает хотя бы бит в каждой колонке, больше точек в payload не поместится
+        if (size < 0 || size > payload.length * 8L) {
+            throw new IOException("Invalid point count " + size);
+        }
+
+        BitInput bits = new BitInput(payload, payload.length - bytes.available());
+        List<CryptoChartData.ChartPoint> points = new ArrayList<>(size);
+        for (long timestamp : readTimestamps(bits, size)) {
+            CryptoChartData.ChartPoint point = new CryptoChartData.ChartPoint();
+            point.setTimestamp(toLocalDateTime(timestamp));
+            points.add(point);
+        }
+        readColumn(bits, points, PointColumn.PRICE);
+        readColumn(bits, points, PointColumn.VOLUME);
+        readColumn(bits, points, PointColumn.MARKET_CAP);
+        if (ohlc) {
+            readColumn(bits, points, PointColumn.OPEN);
+            readColumn(bits, points, PointColumn.HIGH);
+            readColumn(bits, points, PointColumn.LOW);
+        }
+        chart.setData(points);
+        return chart;
+    }
+
+    // Timestamps: first one as is, then delta-of-delta in buckets of 7/9/12 bits or the full 64
+
+    private static void writeTimestamps(BitOutput bits, List<CryptoChartData.ChartPoint> points) {
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < points.size(); i++) {
+            long timestamp = toMillis(points.get(i).getTimestamp());
+            if (i == 0) {
+                bits.writeBits(timestamp, 64);
+            } else {
+                long delta = timestamp - previous;
+                long deltaOfDelta = delta - previousDelta;
+                if (deltaOfDelta == 0) {
+                    bits.writeBit(false);
+                } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+                    bits.writeBits(0b10, 2);
+                    bits.writeBits(deltaOfDelta, 7);
+                } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+                    bits.writeBits(0b110, 3);
+                    bits.writeBits(deltaOfDelta, 9);
+                } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+                    bits.writeBits(0b1110, 4);
+                    bits.writeBits(deltaOfDelta, 12);
+                } else {
+                    bits.writeBits(0b1111, 4);
+                    bits.writeBits(deltaOfDelta, 64);
+                }
+                previousDelta = delta;
+            }
+            previous = timestamp;
+        }
+    }
+
+    private static long[] readTimestamps(BitInput bits, int size) throws EOFException {
+        long[] timestamps = new long[size];
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < size; i++) {
+            long timestamp;
+            if (i == 0) {
+                timestamp = bits.readBits(64);
+            } else {
+                long deltaOfDelta;
+                if (!bits.readBit()) {
+                    deltaOfDelta = 0;
+                } else if (!bits.readBit()) {
+                    deltaOfDelta = signed(bits.readBits(7), 7);
+                } else if (!bits.readBit()) {
+                    deltaOfDelta = signed(bits.readBits(9), 9);
+                } else if (!bits.readBit()) {
+                    deltaOfDelta = signed(bits.readBits(12), 12);
+                } else {
+                    deltaOfDelta = bits.readBits(64);
+                }
+                long delta = previousDelta + deltaOfDelta;
+                timestamp = previous + delta;
+                previousDelta = delta;
+            }
+            timestamps[i] = timestamp;
+            previous = timestamp;
+        }
+        return timestamps;
+    }
+
+    private static long signed(long value, int width) {
+        return value > (1L << (width - 1)) ? value - (1L << width) : value;
+    }
+
+    // Values: XOR with the previous value; '0' when equal, '10' when the meaningful bits fit the previous
+    // window, '11' + 5 bits of leading zeros + 6 bits of length otherwise
+
+    private static void writeColumn(BitOutput bits, List<CryptoChartData.ChartPoint> points, PointColumn column) {
+        long previous = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 0; i < points.size(); i++) {
+            long value = Double.doubleToLongBits(column(column.get(points.get(i))));
+            if (i == 0) {
+                bits.writeBits(value, 64);
+                previous = value;
+                continue;
+            }
+            long xor = value ^ previous;
+            if (xor == 0) {
+                bits.writeBit(false);
+            } else {
+                bits.writeBit(true);
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                    bits.writeBit(false);
+                    bits.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int significant = 64 - leading - trailing;
+                    bits.writeBit(true);
+                    bits.writeBits(leading, 5);
+                    bits.writeBits(significant - 1, 6);
+                    bits.writeBits(xor >>> trailing, significant);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previous = value;
+        }
+    }
+
+    private static void readColumn(BitInput bits, List<CryptoChartData.ChartPoint> points, PointColumn column)
+            throws EOFException {
+        long previous = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 0; i < points.size(); i++) {
+            long value;
+            if (i == 0) {
+                value = bits.readBits(64);
+            } else if (!bits.readBit()) {
+                value = previous;
+            } else {
+                if (bits.readBit()) {
+                    previousLeading = (int) bits.readBits(5);
+                    int significant = (int) bits.readBits(6) + 1;
+                    previousTrailing = 64 - previousLeading - significant;
+                } else if (previousLeading < 0) {
+                    throw new EOFException("Value refers to a window that was never set");
+                }
+                int significant = 64 - previousLeading - previousTrailing;
+                value = previous ^ (bits.readBits(significant) << previousTrailing);
+            }
+            column.set(points.get(i), decimal(Double.longBitsToDouble(value)));
+            previous = value;
+        }
+    }
+
+    private static double column(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    private static BigDecimal decimal(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : BigDecimal.valueOf(value);
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private enum PointColumn {
+        PRICE,
+        VOLUME,
+        MARKET_CAP,
+        OPEN,
+        HIGH,
+        LOW;
+
+        BigDecimal get(CryptoChartData.ChartPoint point) {
+            return switch (this) {
+                case PRICE -> point.getPrice();
+                case VOLUME -> point.getVolume();
+                case MARKET_CAP -> point.getMarketCap();
+                case OPEN -> point.getOpen();
+                case HIGH -> point.getHigh();
+                case LOW -> point.getLow();
+            };
+        }
+
+        void set(CryptoChartData.ChartPoint point, BigDecimal value) {
+            switch (this) {
+                case PRICE -> point.setPrice(value);
+                case VOLUME -> point.setVolume(value);
+                case MARKET_CAP -> point.setMarketCap(value);
+                case OPEN -> point.setOpen(value);
+                case HIGH -> point.setHigh(value);
+                case LOW -> point.setLow(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.difbriy.web.serializer;
+
+import com.difbriy.web.dto.crypto.CryptoChartData;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link CryptoChartData} with {@link ChartSeriesCodec} when the client sends
+ * {@code Accept: application/x-chart-series}. Registered after the JSON converter, so JSON stays the default.
+ */
+public class ChartSeriesHttpMessageConverter extends AbstractHttpMessageConverter<CryptoChartData> {
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(ChartSeriesCodec.MEDIA_TYPE);
+
+    public ChartSeriesHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CryptoChartData.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected CryptoChartData readInternal(Class<? extends CryptoChartData> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        try {
+            return ChartSeriesCodec.decode(inputMessage.getBody().readAllBytes());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Could not read chart series: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(CryptoChartData chart, HttpOutputMessage outputMessage) throws IOException {
+        byte[] payload = ChartSeriesCodec.encode(chart);
+        outputMessage.getHeaders().setContentLength(payload.length);
+        outputMessage.getBody().write(payload);
+    }
+}
@@ -0,0 +1,54 @@
+package com.difbriy.web.serializer;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link CoinQuote} field by field without bean introspection.
+ * Field names match the CoinMarketCap payload the clients already consume.
+ */
+public class CoinQuoteJsonSerializer extends StdSerializer<CoinQuote> {
+
+    public CoinQuoteJsonSerializer() {
+        super(CoinQuote.class);
+    }
+
+    @Override
+    public void serialize(CoinQuote quote, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", quote.id());
+        gen.writeStringField("name", quote.name());
+        gen.writeStringField("symbol", quote.symbol());
+        gen.writeStringField("slug", quote.slug());
+        gen.writeNumberField("rank", quote.rank());
+        writeDouble(gen, "circulating_supply", quote.circulatingSupply());
+        writeDouble(gen, "total_supply", quote.totalSupply());
+        writeDouble(gen, "max_supply", quote.maxSupply());
+        writeDouble(gen, "price", quote.price());
+        writeDouble(gen, "volume_24h", quote.volume24h());
+        writeDouble(gen, "volume_change_24h", quote.volumeChange24h());
+        writeDouble(gen, "percent_change_1h", quote.percentChange1h());
+        writeDouble(gen, "percent_change_24h", quote.percentChange24h());
+        writeDouble(gen, "percent_change_7d", quote.percentChange7d());
+        writeDouble(gen, "percent_change_30d", quote.percentChange30d());
+        writeDouble(gen, "percent_change_60d", quote.percentChange60d());
+        writeDouble(gen, "percent_change_90d", quote.percentChange90d());
+        writeDouble(gen, "market_cap", quote.marketCap());
+        writeDouble(gen, "market_cap_dominance", quote.marketCapDominance());
+        writeDouble(gen, "fully_diluted_market_cap", quote.fullyDilutedMarketCap());
+        gen.writeStringField("last_updated", quote.lastUpdated());
+        gen.writeEndObject();
+    }
+
+    static void writeDouble(JsonGenerator gen, String field, double value) throws IOException {
+        if (CoinQuote.isPresent(value)) {
+            gen.writeNumberField(field, value);
+        } else {
+            gen.writeNullField(field);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.difbriy.web.serializer;
+
+import com.difbriy.web.dto.crypto.CachedQuotes;
+import com.difbriy.web.dto.crypto.CoinQuote;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout binary encoding of a cached quote list for Redis: format version, fetch time, quotes.
+ * No type metadata and no field names, a list of 100 coins fits in roughly 20 KB.
+ */
+public class CoinQuoteRedisSerializer implements RedisSerializer<CachedQuotes> {
+
+    // v2: добавлено время загрузки из API перед списком котировок
+    private static final byte FORMAT_VERSION = 2;
+    private static final int APPROX_QUOTE_SIZE = 200;
+
+    @Override
+    public byte[] serialize(CachedQuotes cached) throws SerializationException {
+        if (cached == null) {
+            return null;
+        }
+        List<CoinQuote> quotes = cached.quotes();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(13 + quotes.size() * APPROX_QUOTE_SIZE);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(cached.fetchedAt().toEpochMilli());
+            out.writeInt(quotes.size());
+            for (CoinQuote quote : quotes) {
+                writeQuote(out, quote);
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not write coin quotes", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public CachedQuotes deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                // value written in another format (e.g. before a rollout), treat it as a cache miss
+                return null;
+            }
+            Instant fetchedAt = Instant.ofEpochMilli(in.readLong());
+            int size = in.readInt();
+            List<CoinQuote> quotes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                quotes.add(readQuote(in));
+            }
+            return new CachedQuotes(fetchedAt, quotes);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read coin quotes", e);
+        }
+    }
+
+    static void writeQuote(DataOutputStream out, CoinQuote quote) throws IOException {
+        out.writeLong(quote.id());
+        writeString(out, quote.name());
+        writeString(out, quote.symbol());
+        writeString(out, quote.slug());
+        out.writeInt(quote.rank());
+        out.writeDouble(quote.circulatingSupply());
+        out.writeDouble(quote.totalSupply());
+        out.writeDouble(quote.maxSupply());
+        out.writeDouble(quote.price());
+        out.writeDouble(quote.volume24h());
+        out.writeDouble(quote.volumeChange24h());
+        out.writeDouble(quote.percentChange1h());
+        out.writeDouble(quote.percentChange24h());
+        out.writeDouble(quote.percentChange7d());
+        out.writeDouble(quote.percentChange30d());
+        out.writeDouble(quote.percentChange60d());
+        out.writeDouble(quote.percentChange90d());
+        out.writeDouble(quote.marketCap());
+        out.writeDouble(quote.marketCapDominance());
+        out.writeDouble(quote.fullyDilutedMarketCap());
+        writeString(out, quote.lastUpdated());
+    }
+
+    static CoinQuote readQuote(DataInputStream in) throws IOException {
+        return new CoinQuote(
+                in.readLong(),
+                readString(in),
+                readString(in),
+                readString(in),
+                in.readInt(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                readString(in)
+        );
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.difbriy.web.service.crypto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadcasts pre-serialised JSON frames. A payload is written to bytes once with the application
+ * {@link ObjectMapper} (the same one the broker's message converter uses, so clients see identical JSON)
+ * and the same immutable array is handed to every destination and, through the simple broker, to every session.
+ */
+@Component
+public class BroadcastFramePublisher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer serializeTimer;
+    private final DistributionSummary frameBytes;
+
+    public BroadcastFramePublisher(SimpMessagingTemplate messagingTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.serializeTimer = Timer.builder("crypto.broadcast.serialize")
+                .description("Time to serialise one broadcast frame")
+                .register(meterRegistry);
+        this.frameBytes = DistributionSummary.builder("crypto.broadcast.frame.size")
+                .description("Size of broadcast frames")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Serialises {@code payload} once. The returned array must not be modified, it is shared by all sends.
+     */
+    public byte[] serialize(Object payload) {
+        long start = System.nanoTime();
+        byte[] frame;
+        try {
+            frame = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise broadcast payload", e);
+        }
+        serializeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        frameBytes.record(frame.length);
+        return frame;
+    }
+
+    public void send(byte[] frame, String... destinations) {
+        for (String destination : destinations) {
+            messagingTemplate.send(destination, MessageBuilder.createMessage(frame, headers(null)));
+        }
+    }
+
+    /**
+     * Sends a frame to one session only, through its user destination.
+     * {@code send} is used instead of {@code convertAndSendToUser} so the bytes bypass the message converters.
+     */
+    public void sendToSession(String sessionId, String destination, byte[] frame) {
+        messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + sessionId + destination,
+                MessageBuilder.createMessage(frame, headers(sessionId)));
+    }
+
+    private static MessageHeaders headers(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (sessionId != null) {
+            accessor.setSessionId(sessionId);
+        }
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+}
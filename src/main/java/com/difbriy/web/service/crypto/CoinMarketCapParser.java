@@ -0,0 +1,202 @@
+package com.difbriy.web.service.crypto;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Token-level parser for CoinMarketCap responses. Reads the body as a stream and builds
+ * {@link CoinQuote} directly, fields we do not use are skipped without materialising them.
+ */
+@Component
+public class CoinMarketCapParser {
+
+    private final JsonFactory jsonFactory;
+
+    public CoinMarketCapParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Parses the {@code listings/latest} payload: {@code {"status": {...}, "data": [coin, ...]}}.
+     */
+    public List<CoinQuote> parseListings(InputStream body) throws IOException {
+        List<CoinQuote> quotes = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (!moveToData(parser)) {
+                return quotes;
+            }
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                return quotes;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                quotes.add(parseCoin(parser));
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Parses a single coin payload where {@code data} is the coin object itself.
+     */
+    public CoinQuote parseSingle(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (moveToData(parser) && parser.currentToken() == JsonToken.START_OBJECT) {
+                return parseCoin(parser);
+            }
+        }
+        return null;
+    }
+
+    private boolean moveToData(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("data".equals(field)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private CoinQuote parseCoin(JsonParser parser) throws IOException {
+        long id = 0;
+        String name = null;
+        String symbol = null;
+        String slug = null;
+        int rank = 0;
+        double circulatingSupply = Double.NaN;
+        double totalSupply = Double.NaN;
+        double maxSupply = Double.NaN;
+        double[] usd = null;
+        String lastUpdated = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsLong();
+                case "name" -> name = parser.getValueAsString();
+                case "symbol" -> symbol = parser.getValueAsString();
+                case "slug" -> slug = parser.getValueAsString();
+                case "cmc_rank" -> rank = parser.getValueAsInt();
+                case "circulating_supply" -> circulatingSupply = readDouble(parser, value);
+                case "total_supply" -> totalSupply = readDouble(parser, value);
+                case "max_supply" -> maxSupply = readDouble(parser, value);
+                case "quote" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String currency = parser.currentName();
+                            if (parser.nextToken() == JsonToken.START_OBJECT && "USD".equals(currency)) {
+                                usd = new double[UsdField.COUNT];
+                                lastUpdated = parseUsdQuote(parser, usd);
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (usd == null) {
+            usd = new double[UsdField.COUNT];
+            Arrays.fill(usd, Double.NaN);
+        }
+
+        return new CoinQuote(
+                id, name, symbol, slug, rank,
+                circulatingSupply, totalSupply, maxSupply,
+                usd[UsdField.PRICE],
+                usd[UsdField.VOLUME_24H],
+                usd[UsdField.VOLUME_CHANGE_24H],
+                usd[UsdField.PERCENT_CHANGE_1H],
+                usd[UsdField.PERCENT_CHANGE_24H],
+                usd[UsdField.PERCENT_CHANGE_7D],
+                usd[UsdField.PERCENT_CHANGE_30D],
+                usd[UsdField.PERCENT_CHANGE_60D],
+                usd[UsdField.PERCENT_CHANGE_90D],
+                usd[UsdField.MARKET_CAP],
+                usd[UsdField.MARKET_CAP_DOMINANCE],
+                usd[UsdField.FULLY_DILUTED_MARKET_CAP],
+                lastUpdated
+        );
+    }
+
+    private String parseUsdQuote(JsonParser parser, double[] usd) throws IOException {
+        Arrays.fill(usd, Double.NaN);
+        String lastUpdated = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            int index = UsdField.indexOf(field);
+            if (index >= 0) {
+                usd[index] = readDouble(parser, value);
+            } else if ("last_updated".equals(field)) {
+                lastUpdated = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return lastUpdated;
+    }
+
+    private static double readDouble(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+            case VALUE_STRING -> parser.getValueAsDouble(Double.NaN);
+            default -> {
+                parser.skipChildren();
+                yield Double.NaN;
+            }
+        };
+    }
+
+    private static final class UsdField {
+        static final int PRICE = 0;
+        static final int VOLUME_24H = 1;
+        static final int VOLUME_CHANGE_24H = 2;
+        static final int PERCENT_CHANGE_1H = 3;
+        static final int PERCENT_CHANGE_24H = 4;
+        static final int PERCENT_CHANGE_7D = 5;
+        static final int PERCENT_CHANGE_30D = 6;
+        static final int PERCENT_CHANGE_60D = 7;
+        static final int PERCENT_CHANGE_90D = 8;
+        static final int MARKET_CAP = 9;
+        static final int MARKET_CAP_DOMINANCE = 10;
+        static final int FULLY_DILUTED_MARKET_CAP = 11;
+        static final int COUNT = 12;
+
+        static int indexOf(String field) {
+            return switch (field) {
+                case "price" -> PRICE;
+                case "volume_24h" -> VOLUME_24H;
+                case "volume_change_24h" -> VOLUME_CHANGE_24H;
+                case "percent_change_1h" -> PERCENT_CHANGE_1H;
+                case "percent_change_24h" -> PERCENT_CHANGE_24H;
+                case "percent_change_7d" -> PERCENT_CHANGE_7D;
+                case "percent_change_30d" -> PERCENT_CHANGE_30D;
+                case "percent_change_60d" -> PERCENT_CHANGE_60D;
+                case "percent_change_90d" -> PERCENT_CHANGE_90D;
+                case "market_cap" -> MARKET_CAP;
+                case "market_cap_dominance" -> MARKET_CAP_DOMINANCE;
+                case "fully_diluted_market_cap" -> FULLY_DILUTED_MARKET_CAP;
+                default -> -1;
+            };
+        }
+    }
+}
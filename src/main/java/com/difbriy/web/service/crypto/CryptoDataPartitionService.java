@@ -0,0 +1,156 @@
+package com.difbriy.web.service.crypto;
+
+import com.difbriy.web.dto.crypto.ChartResolution;
+import com.difbriy.web.repository.CryptoDataRepository;
+import com.difbriy.web.repository.CryptoOhlcvRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Maintains the daily partitions of {@code crypto_data} (see {@code V15__partition_crypto_data.sql}):
+ * creates partitions ahead of the writer and enforces retention by dropping whole partitions.
+ * On a database where the migration has not been applied yet it falls back to the row-by-row DELETE.
+ * The OHLCV rollups are pruned in the same nightly run.
+ */
+@Service
+@Slf4j
+public class CryptoDataPartitionService {
+
+    private static final String PARTITION_PREFIX = "crypto_data_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String IS_PARTITIONED_SQL = """
+            SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt
+                           JOIN pg_class c ON c.oid = pt.partrelid
+                           WHERE c.relname = 'crypto_data' AND pg_table_is_visible(c.oid))
+            """;
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT child.relname FROM pg_inherits i
+            JOIN pg_class parent ON parent.oid = i.inhparent
+            JOIN pg_class child ON child.oid = i.inhrelid
+            WHERE parent.relname = 'crypto_data' AND pg_table_is_visible(parent.oid)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CryptoDataRepository cryptoDataRepository;
+    private final CryptoOhlcvRepository cryptoOhlcvRepository;
+    private final int retentionDays;
+    private final int daysAhead;
+
+    public CryptoDataPartitionService(JdbcTemplate jdbcTemplate,
+                                      CryptoDataRepository cryptoDataRepository,
+                                      CryptoOhlcvRepository cryptoOhlcvRepository,
+                                      @Value("${crypto.retention.days:180}") int retentionDays,
+                                      @Value("${crypto.retention.partitions-ahead:7}") int daysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cryptoDataRepository = cryptoDataRepository;
+        this.cryptoOhlcvRepository = cryptoOhlcvRepository;
+        this.retentionDays = retentionDays;
+        this.daysAhead = daysAhead;
+    }
+
+    /**
+     * Partitions for the coming days must exist before the first insert after startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            if (isPartitioned()) {
+                createFuturePartitions(LocalDate.now());
+            }
+        } catch (Exception e) {
+            log.error("Error creating crypto_data partitions on startup", e);
+        }
+    }
+
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void maintainPartitions() {
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate cutoff = today.minusDays(retentionDays);
+            pruneRollups(cutoff);
+
+            if (!isPartitioned()) {
+                cryptoDataRepository.deleteOldData(cutoff.atStartOfDay());
+                log.warn("crypto_data is not partitioned, old data removed with DELETE (older than {} days)", retentionDays);
+                return;
+            }
+
+            createFuturePartitions(today);
+            int dropped = dropPartitionsBefore(cutoff);
+            log.info("Dropped {} crypto_data partitions older than {} days", dropped, retentionDays);
+        } catch (Exception e) {
+            log.error("Error maintaining crypto_data partitions", e);
+        }
+    }
+
+    /**
+     * Fine rollup resolutions keep only their own short window, coarse ones follow the raw data retention.
+     */
+    private void pruneRollups(LocalDate cutoff) {
+        LocalDateTime now = LocalDateTime.now();
+        for (ChartResolution resolution : ChartResolution.values()) {
+            LocalDateTime resolutionCutoff = resolution.getRetention() != null
+                    ? now.minus(resolution.getRetention())
+                    : cutoff.atStartOfDay();
+            int deleted = cryptoOhlcvRepository.deleteBefore(resolution, resolutionCutoff);
+            log.debug("Pruned {} {} OHLCV buckets before {}", deleted, resolution.getCode(), resolutionCutoff);
+        }
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+    }
+
+    private void createFuturePartitions(LocalDate today) {
+        for (int i = 0; i <= daysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day)
+                    + " PARTITION OF crypto_data FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        }
+        log.debug("crypto_data partitions ensured up to {}", today.plusDays(daysAhead));
+    }
+
+    /**
+     * A daily partition covers {@code [day, day + 1)}, so it is dropped once its whole range is before the cutoff.
+     */
+    private int dropPartitionsBefore(LocalDate cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+        int dropped = 0;
+        for (String partition : partitions) {
+            LocalDate day = partitionDay(partition);
+            if (day != null && !day.plusDays(1).isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+
+    private static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
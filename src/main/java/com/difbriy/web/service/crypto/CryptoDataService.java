@@ -1,18 +1,22 @@
 package com.difbriy.web.service.crypto;
 
+import com.difbriy.web.config.MarketDataHttpClients;
+import com.difbriy.web.dto.crypto.CryptoChartData;
 import com.difbriy.web.entity.CryptoData;
 import com.difbriy.web.repository.CryptoDataRepository;
+import com.difbriy.web.service.crypto.indicator.IndicatorEngine;
+import com.difbriy.web.service.crypto.indicator.IndicatorMath;
+import com.difbriy.web.service.crypto.indicator.IndicatorSnapshot;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import okhttp3.Request;
+import okhttp3.Response;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -22,6 +26,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class CryptoDataService {
+
+    private static final int FORECAST_HISTORY_POINTS = 180;
     
     @Value("${api.crypto.coingecko}")
     private String cryptoApiUrl;
@@ -29,9 +35,11 @@ public class CryptoDataService {
     @Value("${api.crypto.key}")
     private String apiKey;
     
-    private final RestTemplate restTemplate;
+    private final MarketDataHttpClients httpClients;
     private final ObjectMapper objectMapper;
     private final CryptoDataRepository cryptoDataRepository;
+    private final IndicatorEngine indicatorEngine;
+    private final CryptoService cryptoService;
     
     public Map<String, Object> getCryptoData(String symbol) {
         Map<String, Object> data = new HashMap<>();
@@ -55,35 +63,35 @@ public class CryptoDataService {
     
     private Map<String, Object> getCurrentCryptoData(String symbol) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-CMC_PRO_API_KEY", apiKey);
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
             String url = "https://pro-api.coinmarketcap.com/v1/cryptocurrency/quotes/latest?symbol=" + symbol;
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            Request request = new Request.Builder()
+                .url(url)
+                .addHeader("X-CMC_PRO_API_KEY", apiKey)
+                .addHeader("Accept", "application/json")
+                .build();
             
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-                JsonNode dataNode = jsonResponse.get("data");
+            try (Response response = httpClients.getCoinMarketCap().newCall(request).execute()) {
+                if (response.isSuccessful()) {
+                    JsonNode jsonResponse = objectMapper.readTree(response.body().byteStream());
+                    JsonNode dataNode = jsonResponse.get("data");
                 
-                if (dataNode != null && dataNode.has(symbol.toUpperCase())) {
-                    JsonNode data = dataNode.get(symbol.toUpperCase());
-                    JsonNode quote = data.get("quote");
-                    JsonNode usdQuote = quote != null ? quote.get("USD") : null;
+                    if (dataNode != null && dataNode.has(symbol.toUpperCase())) {
+                        JsonNode data = dataNode.get(symbol.toUpperCase());
+                        JsonNode quote = data.get("quote");
+                        JsonNode usdQuote = quote != null ? quote.get("USD") : null;
                     
-                    if (data != null && usdQuote != null) {
-                        Map<String, Object> result = new HashMap<>();
-                        result.put("symbol", symbol);
-                        result.put("name", data.get("name") != null ? data.get("name").asText() : symbol + " Coin");
-                        result.put("currentPrice", usdQuote.get("price") != null ? new BigDecimal(usdQuote.get("price").asText()) : BigDecimal.ZERO);
-                        result.put("marketCap", usdQuote.get("market_cap") != null ? new BigDecimal(usdQuote.get("market_cap").asText()) : BigDecimal.ZERO);
-                        result.put("volume24h", usdQuote.get("volume_24h") != null ? new BigDecimal(usdQuote.get("volume_24h").asText()) : BigDecimal.ZERO);
-                        result.put("priceChange24h", usdQuote.get("price_change_24h") != null ? new BigDecimal(usdQuote.get("price_change_24h").asText()) : BigDecimal.ZERO);
-                        result.put("priceChangePercent24h", usdQuote.get("percent_change_24h") != null ? new BigDecimal(usdQuote.get("percent_change_24h").asText()) : BigDecimal.ZERO);
+                        if (data != null && usdQuote != null) {
+                            Map<String, Object> result = new HashMap<>();
+                            result.put("symbol", symbol);
+                            result.put("name", data.get("name") != null ? data.get("name").asText() : symbol + " Coin");
+                            result.put("currentPrice", usdQuote.get("price") != null ? new BigDecimal(usdQuote.get("price").asText()) : BigDecimal.ZERO);
+                            result.put("marketCap", usdQuote.get("market_cap") != null ? new BigDecimal(usdQuote.get("market_cap").asText()) : BigDecimal.ZERO);
+                            result.put("volume24h", usdQuote.get("volume_24h") != null ? new BigDecimal(usdQuote.get("volume_24h").asText()) : BigDecimal.ZERO);
+                            result.put("priceChange24h", usdQuote.get("price_change_24h") != null ? new BigDecimal(usdQuote.get("price_change_24h").asText()) : BigDecimal.ZERO);
+                            result.put("priceChangePercent24h", usdQuote.get("percent_change_24h") != null ? new BigDecimal(usdQuote.get("percent_change_24h").asText()) : BigDecimal.ZERO);
                         
-                        return result;
+                            return result;
+                        }
                     }
                 }
             }
@@ -105,21 +113,23 @@ public class CryptoDataService {
             String url = String.format("https://api.coingecko.com/api/v3/coins/%s/market_chart?vs_currency=usd&days=%d",
                 coinId, days);
             
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            Request request = new Request.Builder().url(url).build();
             
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-                JsonNode prices = jsonResponse.get("prices");
-                
-                List<Map<String, Object>> historicalData = new ArrayList<>();
-                for (JsonNode price : prices) {
-                    Map<String, Object> dataPoint = new HashMap<>();
-                    dataPoint.put("timestamp", price.get(0).asLong());
-                    dataPoint.put("price", new BigDecimal(price.get(1).asText()));
-                    historicalData.add(dataPoint);
+            try (Response response = httpClients.getCoinGecko().newCall(request).execute()) {
+                if (response.isSuccessful()) {
+                    JsonNode jsonResponse = objectMapper.readTree(response.body().byteStream());
+                    JsonNode prices = jsonResponse.get("prices");
+                    
+                    List<Map<String, Object>> historicalData = new ArrayList<>();
+                    for (JsonNode price : prices) {
+                        Map<String, Object> dataPoint = new HashMap<>();
+                        dataPoint.put("timestamp", price.get(0).asLong());
+                        dataPoint.put("price", new BigDecimal(price.get(1).asText()));
+                        historicalData.add(dataPoint);
+                    }
+                    
+                    return historicalData;
                 }
-                
-                return historicalData;
             }
         } catch (Exception e) {
             log.error("Error fetching historical data for {}: {}", symbol, e.getMessage());
@@ -140,111 +150,26 @@ public class CryptoDataService {
             return;
         }
         
-        List<BigDecimal> prices = historicalData.stream()
+        double[] prices = IndicatorMath.toArray(historicalData.stream()
             .map(point -> (BigDecimal) point.get("price"))
-            .toList();
-        
-        BigDecimal currentPrice = (BigDecimal) data.get("currentPrice");
-
-        BigDecimal rsi = calculateRSI(prices);
-        data.put("rsi", rsi);
+            .toList());
 
-        data.put("sma20", calculateSMA(prices, Math.min(20, prices.size())));
-        data.put("sma50", calculateSMA(prices, Math.min(50, prices.size())));
-        data.put("sma200", calculateSMA(prices, Math.min(200, prices.size())));
+        double rsi = IndicatorMath.rsi(prices, 14);
+        data.put("rsi", Double.isNaN(rsi) ? BigDecimal.valueOf(50) : IndicatorMath.toDecimal(rsi, 4));
 
-        BigDecimal volatility = calculateVolatility(prices);
-        data.put("volatility", volatility);
+        data.put("sma20", IndicatorMath.toDecimal(IndicatorMath.sma(prices, 20), 8));
+        data.put("sma50", IndicatorMath.toDecimal(IndicatorMath.sma(prices, 50), 8));
+        data.put("sma200", IndicatorMath.toDecimal(IndicatorMath.sma(prices, 200), 8));
 
-        BigDecimal[] supportResistance = calculateSupportResistance(prices);
-        data.put("supportLevel", supportResistance[0]);
-        data.put("resistanceLevel", supportResistance[1]);
-    }
-    
-    private BigDecimal calculateRSI(List<BigDecimal> prices) {
-        if (prices.size() < 14) return BigDecimal.valueOf(50);
-        
-        List<BigDecimal> gains = new ArrayList<>();
-        List<BigDecimal> losses = new ArrayList<>();
-        
-        for (int i = 1; i < prices.size(); i++) {
-            BigDecimal change = prices.get(i).subtract(prices.get(i - 1));
-            if (change.compareTo(BigDecimal.ZERO) > 0) {
-                gains.add(change);
-                losses.add(BigDecimal.ZERO);
-            } else {
-                gains.add(BigDecimal.ZERO);
-                losses.add(change.abs());
-            }
-        }
-        BigDecimal avgGain = gains.stream()
-            .limit(14)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(14), 4, RoundingMode.HALF_UP);
-        
-        BigDecimal avgLoss = losses.stream()
-            .limit(14)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(14), 4, RoundingMode.HALF_UP);
-        
-        if (avgLoss.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.valueOf(100);
-        }
-        
-        BigDecimal rs = avgGain.divide(avgLoss, 4, RoundingMode.HALF_UP);
-        BigDecimal rsi = BigDecimal.valueOf(100).subtract(
-            BigDecimal.valueOf(100).divide(BigDecimal.ONE.add(rs), 4, RoundingMode.HALF_UP)
-        );
-        
-        return rsi;
-    }
-    
-    private BigDecimal calculateSMA(List<BigDecimal> prices, int period) {
-        if (prices.size() < period) {
-            return prices.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(prices.size()), 8, RoundingMode.HALF_UP);
-        }
-        
-        return prices.stream()
-            .skip(prices.size() - period)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(period), 8, RoundingMode.HALF_UP);
-    }
-    
-    private BigDecimal calculateVolatility(List<BigDecimal> prices) {
-        if (prices.size() < 2) return BigDecimal.valueOf(5);
-        
-        BigDecimal mean = calculateSMA(prices, prices.size());
-        
-        BigDecimal variance = prices.stream()
-            .map(price -> price.subtract(mean).pow(2))
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(prices.size()), 8, RoundingMode.HALF_UP);
-        
-        BigDecimal stdDev = new BigDecimal(Math.sqrt(variance.doubleValue()));
-        BigDecimal volatility = stdDev.divide(mean, 4, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100));
-        
-        return volatility;
-    }
-    
-    private BigDecimal[] calculateSupportResistance(List<BigDecimal> prices) {
-        if (prices.size() < 10) {
-            BigDecimal currentPrice = prices.get(prices.size() - 1);
-            return new BigDecimal[]{
-                currentPrice.multiply(BigDecimal.valueOf(0.9)),
-                currentPrice.multiply(BigDecimal.valueOf(1.1))
-            };
-        }
-        
-        BigDecimal min = prices.stream().min(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
-        BigDecimal max = prices.stream().max(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
+        // Волатильность здесь - коэффициент вариации цены за период, в процентах
+        double mean = IndicatorMath.mean(prices, 0, prices.length);
+        double volatility = IndicatorMath.stdDev(prices, 0, prices.length) / mean * 100;
+        data.put("volatility", IndicatorMath.toDecimal(volatility, 4));
 
-        BigDecimal support = min.add(max.subtract(min).multiply(BigDecimal.valueOf(0.2)));
-        BigDecimal resistance = min.add(max.subtract(min).multiply(BigDecimal.valueOf(0.8)));
-        
-        return new BigDecimal[]{support, resistance};
+        double min = IndicatorMath.min(prices, 0, prices.length);
+        double max = IndicatorMath.max(prices, 0, prices.length);
+        data.put("supportLevel", IndicatorMath.toDecimal(min + (max - min) * 0.2, 8));
+        data.put("resistanceLevel", IndicatorMath.toDecimal(min + (max - min) * 0.8, 8));
     }
     
     private String formatHistoricalData(List<Map<String, Object>> historicalData) {
@@ -335,7 +260,7 @@ public class CryptoDataService {
         log.info("Getting latest crypto data from DB for symbol: {}", symbol);
         
         try {
-            CryptoData latestData = cryptoDataRepository.findLatestBySymbol(symbol);
+            CryptoData latestData = cryptoService.getLatestCryptoData(symbol);
             
             if (latestData == null) {
                 log.warn("No data found in DB for symbol: {}", symbol);
@@ -353,7 +278,7 @@ public class CryptoDataService {
             
             data.put("historicalPrices", new ArrayList<>());
             
-            calculateBasicTechnicalIndicators(data, latestData);
+            putTechnicalIndicators(data, symbol, latestData.getPrice());
             
             return data;
             
@@ -368,15 +293,16 @@ public class CryptoDataService {
         log.info("Getting crypto data for forecast from DB for symbol: {}", symbol);
         
         try {
-            CryptoData latestData = cryptoDataRepository.findLatestBySymbol(symbol);
+            CryptoData latestData = cryptoService.getLatestCryptoData(symbol);
             
             if (latestData == null) {
                 log.warn("No data found in DB for symbol: {}", symbol);
                 return getDefaultCryptoData(symbol);
             }
             
-            LocalDateTime startTime = LocalDateTime.now().minusMonths(6);
-            List<CryptoData> historicalData = cryptoDataRepository.findLast6MonthsBySymbol(symbol, startTime);
+            // Дневные роллапы за полгода, прорежённые до FORECAST_HISTORY_POINTS, а не сырые тики
+            List<CryptoChartData.ChartPoint> history = cryptoService.getChartHistory(
+                symbol, "6m", FORECAST_HISTORY_POINTS);
             
             Map<String, Object> data = new HashMap<>();
             data.put("symbol", latestData.getSymbol());
@@ -387,19 +313,19 @@ public class CryptoDataService {
             data.put("priceChange24h", latestData.getPercentChange24h());
             data.put("priceChangePercent24h", latestData.getPercentChange24h());
 
-            List<Map<String, Object>> historicalPrices = historicalData.stream()
-                .map(cryptoData -> {
+            List<Map<String, Object>> historicalPrices = history.stream()
+                .map(point -> {
                     Map<String, Object> dataPoint = new HashMap<>();
-                    dataPoint.put("timestamp", cryptoData.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-                    dataPoint.put("price", cryptoData.getPrice());
-                    dataPoint.put("volume", cryptoData.getVolume24h());
+                    dataPoint.put("timestamp", point.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                    dataPoint.put("price", point.getPrice());
+                    dataPoint.put("volume", point.getVolume());
                     return dataPoint;
                 })
                 .collect(Collectors.toList());
             
             data.put("historicalPrices", historicalPrices);
 
-            calculateTechnicalIndicatorsFromHistoricalData(data, historicalData);
+            putTechnicalIndicators(data, symbol, latestData.getPrice());
             
             return data;
             
@@ -409,150 +335,29 @@ public class CryptoDataService {
         }
     }
 
-    private void calculateBasicTechnicalIndicators(Map<String, Object> data, CryptoData latestData) {
-        data.put("rsi", BigDecimal.valueOf(50));
-        data.put("sma20", latestData.getPrice());
-        data.put("sma50", latestData.getPrice());
-        data.put("sma200", latestData.getPrice());
-        data.put("volatility", BigDecimal.valueOf(5));
-        data.put("supportLevel", latestData.getPrice().multiply(BigDecimal.valueOf(0.95)));
-        data.put("resistanceLevel", latestData.getPrice().multiply(BigDecimal.valueOf(1.05)));
-    }
-
-    private void calculateTechnicalIndicatorsFromHistoricalData(Map<String, Object> data, List<CryptoData> historicalData) {
-        if (historicalData.isEmpty()) {
-            data.put("rsi", BigDecimal.valueOf(50));
-            data.put("sma20", data.get("currentPrice"));
-            data.put("sma50", data.get("currentPrice"));
-            data.put("sma200", data.get("currentPrice"));
-            data.put("volatility", BigDecimal.valueOf(5));
-            data.put("supportLevel", ((BigDecimal) data.get("currentPrice")).multiply(BigDecimal.valueOf(0.95)));
-            data.put("resistanceLevel", ((BigDecimal) data.get("currentPrice")).multiply(BigDecimal.valueOf(1.05)));
-            return;
-        }
-
-        BigDecimal rsi = calculateRSIFromDB(historicalData);
-        data.put("rsi", rsi);
-        
-        data.put("sma20", calculateSMAFromDB(historicalData, 20));
-        data.put("sma50", calculateSMAFromDB(historicalData, 50));
-        data.put("sma200", calculateSMAFromDB(historicalData, 200));
-
-        BigDecimal volatility = calculateVolatilityFromDB(historicalData);
-        data.put("volatility", volatility);
-
-        BigDecimal[] supportResistance = calculateSupportResistanceFromDB(historicalData);
-        data.put("supportLevel", supportResistance[0]);
-        data.put("resistanceLevel", supportResistance[1]);
-    }
-
-    private BigDecimal calculateRSIFromDB(List<CryptoData> historicalData) {
-        if (historicalData.size() < 14) {
-            return BigDecimal.valueOf(50);
-        }
-        
-        List<BigDecimal> prices = historicalData.stream()
-            .map(CryptoData::getPrice)
-            .collect(Collectors.toList());
-        
-        List<BigDecimal> gains = new ArrayList<>();
-        List<BigDecimal> losses = new ArrayList<>();
-        
-        for (int i = 1; i < prices.size(); i++) {
-            BigDecimal change = prices.get(i).subtract(prices.get(i - 1));
-            if (change.compareTo(BigDecimal.ZERO) > 0) {
-                gains.add(change);
-                losses.add(BigDecimal.ZERO);
-            } else {
-                gains.add(BigDecimal.ZERO);
-                losses.add(change.abs());
-            }
-        }
-        
-        if (gains.size() < 14) {
-            return BigDecimal.valueOf(50);
-        }
-        
-        BigDecimal avgGain = gains.subList(gains.size() - 14, gains.size()).stream()
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(14), 4, RoundingMode.HALF_UP);
-        
-        BigDecimal avgLoss = losses.subList(losses.size() - 14, losses.size()).stream()
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(14), 4, RoundingMode.HALF_UP);
-        
-        if (avgLoss.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.valueOf(100);
-        }
-        
-        BigDecimal rs = avgGain.divide(avgLoss, 4, RoundingMode.HALF_UP);
-        BigDecimal rsi = BigDecimal.valueOf(100).subtract(
-            BigDecimal.valueOf(100).divide(BigDecimal.ONE.add(rs), 4, RoundingMode.HALF_UP)
-        );
-        
-        return rsi;
-    }
-
-    private BigDecimal calculateSMAFromDB(List<CryptoData> historicalData, int period) {
-        if (historicalData.size() < period) {
-            return historicalData.get(historicalData.size() - 1).getPrice();
-        }
-        
-        List<CryptoData> recentData = historicalData.subList(historicalData.size() - period, historicalData.size());
-        BigDecimal sum = recentData.stream()
-            .map(CryptoData::getPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return sum.divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
-    }
+    /**
+     * Indicators come from the streaming {@link IndicatorEngine} over its configured window;
+     * neutral defaults are used until the symbol has enough ticks.
+     */
+    private void putTechnicalIndicators(Map<String, Object> data, String symbol, BigDecimal currentPrice) {
+        IndicatorSnapshot indicators = indicatorEngine.get(symbol);
+        BigDecimal price = currentPrice != null ? currentPrice : BigDecimal.ZERO;
 
-    private BigDecimal calculateVolatilityFromDB(List<CryptoData> historicalData) {
-        if (historicalData.size() < 2) {
-            return BigDecimal.valueOf(5);
-        }
-        
-        List<BigDecimal> prices = historicalData.stream()
-            .map(CryptoData::getPrice)
-            .collect(Collectors.toList());
-        
-        List<BigDecimal> returns = new ArrayList<>();
-        for (int i = 1; i < prices.size(); i++) {
-            BigDecimal returnValue = prices.get(i).subtract(prices.get(i - 1))
-                .divide(prices.get(i - 1), 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
-            returns.add(returnValue);
-        }
+        data.put("rsi", indicatorValue(indicators == null ? Double.NaN : indicators.rsi(), BigDecimal.valueOf(50), 4));
+        data.put("sma20", indicatorValue(indicators == null ? Double.NaN : indicators.sma20(), price, 8));
+        data.put("sma50", indicatorValue(indicators == null ? Double.NaN : indicators.sma50(), price, 8));
+        data.put("sma200", indicatorValue(indicators == null ? Double.NaN : indicators.sma200(), price, 8));
+        data.put("volatility", indicatorValue(indicators == null ? Double.NaN : indicators.volatility(), BigDecimal.valueOf(5), 4));
 
-        BigDecimal mean = returns.stream()
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(returns.size()), 4, RoundingMode.HALF_UP);
-        
-        BigDecimal variance = returns.stream()
-            .map(r -> r.subtract(mean).pow(2))
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(returns.size()), 4, RoundingMode.HALF_UP);
-        
-        BigDecimal volatility = BigDecimal.valueOf(Math.sqrt(variance.doubleValue()));
-        
-        return volatility;
+        BigDecimal lowerBand = price.multiply(BigDecimal.valueOf(0.95));
+        BigDecimal upperBand = price.multiply(BigDecimal.valueOf(1.05));
+        BigDecimal minPrice = indicatorValue(indicators == null ? Double.NaN : indicators.min(), lowerBand, 8);
+        BigDecimal maxPrice = indicatorValue(indicators == null ? Double.NaN : indicators.max(), upperBand, 8);
+        data.put("supportLevel", minPrice.min(lowerBand));
+        data.put("resistanceLevel", maxPrice.max(upperBand));
     }
 
-    private BigDecimal[] calculateSupportResistanceFromDB(List<CryptoData> historicalData) {
-        if (historicalData.isEmpty()) {
-            return new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO};
-        }
-        
-        List<BigDecimal> prices = historicalData.stream()
-            .map(CryptoData::getPrice)
-            .collect(Collectors.toList());
-        
-        BigDecimal minPrice = prices.stream().min(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
-        BigDecimal maxPrice = prices.stream().max(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
-        BigDecimal currentPrice = prices.get(prices.size() - 1);
-        
-        BigDecimal supportLevel = minPrice.min(currentPrice.multiply(BigDecimal.valueOf(0.95)));
-        BigDecimal resistanceLevel = maxPrice.max(currentPrice.multiply(BigDecimal.valueOf(1.05)));
-        
-        return new BigDecimal[]{supportLevel, resistanceLevel};
+    private static BigDecimal indicatorValue(double value, BigDecimal fallback, int scale) {
+        return Double.isNaN(value) ? fallback : IndicatorMath.toDecimal(value, scale);
     }
 }
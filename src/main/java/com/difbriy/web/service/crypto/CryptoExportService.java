@@ -0,0 +1,155 @@
+package com.difbriy.web.service.crypto;
+
+import com.difbriy.web.repository.CryptoSeriesRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bulk export of one symbol's {@code crypto_data} rows as NDJSON or CSV. Rows go from the JDBC cursor straight
+ * to the output stream, so memory stays flat whatever the range; nothing is mapped to entities.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final List<String> DECIMAL_COLUMNS = List.of(
+            "price", "market_cap", "volume_24h", "circulating_supply", "total_supply", "max_supply",
+            "percent_change_1h", "percent_change_24h", "percent_change_7d");
+
+    private final CryptoSeriesRepository cryptoSeriesRepository;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+    }
+
+    public long export(String symbol, LocalDateTime from, LocalDateTime to, Format format, OutputStream out)
+            throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long rows = switch (format) {
+            case NDJSON -> writeNdjson(symbol, from, to, out);
+            case CSV -> writeCsv(symbol, from, to, out);
+        };
+        log.info("Exported {} rows of {} [{}, {}) as {} in {} ms",
+                rows, symbol, from, to, format, System.currentTimeMillis() - startedAt);
+        return rows;
+    }
+
+    private long writeNdjson(String symbol, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        long[] rows = new long[1];
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            cryptoSeriesRepository.streamSymbolRange(symbol, from, to, rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeStringField("symbol", symbol);
+                    generator.writeStringField("timestamp", timestamp(rs));
+                    generator.writeStringField("name", rs.getString("name"));
+                    for (String column : DECIMAL_COLUMNS) {
+                        BigDecimal value = rs.getBigDecimal(column);
+                        if (value == null) {
+                            generator.writeNullField(column);
+                        } else {
+                            generator.writeNumberField(column, value);
+                        }
+                    }
+                    int rank = rs.getInt("rank");
+                    if (rs.wasNull()) {
+                        generator.writeNullField("rank");
+                    } else {
+                        generator.writeNumberField("rank", rank);
+                    }
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+            if (rows[0] > 0) {
+                generator.writeRaw('\n');
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private long writeCsv(String symbol, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        long[] rows = new long[1];
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write("symbol,timestamp,name," + String.join(",", DECIMAL_COLUMNS) + ",rank\n");
+        try {
+            cryptoSeriesRepository.streamSymbolRange(symbol, from, to, rs -> {
+                try {
+                    writer.write(csv(symbol));
+                    writer.write(',');
+                    writer.write(timestamp(rs));
+                    writer.write(',');
+                    writer.write(csv(rs.getString("name")));
+                    for (String column : DECIMAL_COLUMNS) {
+                        writer.write(',');
+                        BigDecimal value = rs.getBigDecimal(column);
+                        if (value != null) {
+                            writer.write(value.toPlainString());
+                        }
+                    }
+                    writer.write(',');
+                    int rank = rs.getInt("rank");
+                    if (!rs.wasNull()) {
+                        writer.write(Integer.toString(rank));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return rows[0];
+    }
+
+    private static String timestamp(ResultSet rs) throws SQLException {
+        return rs.getTimestamp("timestamp").toLocalDateTime().toString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
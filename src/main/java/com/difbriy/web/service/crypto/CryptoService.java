@@ -1,29 +1,37 @@
 package com.difbriy.web.service.crypto;
 
+import com.difbriy.web.config.MarketDataHttpClients;
+import com.difbriy.web.dto.crypto.CachedQuotes;
+import com.difbriy.web.dto.crypto.ChartResolution;
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.dto.crypto.CryptoChartData;
+import com.difbriy.web.dto.crypto.MarketSnapshot;
 import com.difbriy.web.entity.CryptoData;
 import com.difbriy.web.repository.CryptoDataRepository;
+import com.difbriy.web.repository.CryptoOhlcvRepository;
+import com.difbriy.web.service.crypto.chart.ChartDownsampler;
+import com.difbriy.web.service.crypto.pipeline.MarketDataPipeline;
+import com.difbriy.web.service.crypto.series.PriceSeriesStore;
+import com.difbriy.web.service.crypto.series.SeriesSlice;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 
@@ -31,14 +39,27 @@ import okhttp3.Response;
 @RequiredArgsConstructor
 @Slf4j
 public class CryptoService {
-    private final ObjectMapper objectMapper;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final CryptoDataRepository cryptoDataRepository;
+    public static final String DATA_AGE_HEADER = "X-Data-Age";
+    private static final int MIN_CHART_POINTS = 3;
 
-    private static final String ALL_COINS_CACHE_KEY = "all_coins";
-    private static final String SINGLE_COIN_CACHE_KEY_PREFIX = "coin:";
-    private static final long CACHE_DURATION = 1;
+    private final QuoteCache quoteCache;
+    private final CryptoDataRepository cryptoDataRepository;
+    private final MarketDataHttpClients httpClients;
+    private final CoinMarketCapParser coinMarketCapParser;
+    private final MarketDataPipeline marketDataPipeline;
+    private final CryptoOhlcvRepository cryptoOhlcvRepository;
+    private final LatestQuoteSnapshot latestQuoteSnapshot;
+    private final PriceSeriesStore priceSeriesStore;
+    private final SingleFlight singleFlight;
+    private final BroadcastFramePublisher framePublisher;
+    private final Executor taskExecutor;
+    private final AtomicBoolean allCoinsRefreshing = new AtomicBoolean();
+    private volatile SnapshotFrame latestSnapshotFrame;
+    // Ключ содержит версию роллапов, поэтому записи прошлых тиков просто вытесняются по размеру или по времени
+    private final Cache<ChartKey, List<CryptoChartData.ChartPoint>> chartCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
 
     @Value("${api.crypto.url}")
     private String apiUrl;
@@ -46,45 +67,62 @@ public class CryptoService {
     @Value("${api.crypto.key}")
     private String apiKey;
 
+    @Value("${crypto.cache.quotes.soft-ttl:45s}")
+    private Duration quotesSoftTtl;
+
+    @Value("${crypto.chart.max-points:500}")
+    private int chartMaxPoints;
+
     @Scheduled(fixedRate = 30000)
     public void scheduledUpdate() {
         try {
-            List<Map<String, Object>> data = fetchDataFromCoinGeckoInternal();
-            saveCryptoDataToDatabase(data);
-            messagingTemplate.convertAndSend("/topic/crypto", data);
-            // Отправка данных в lifetime режиме реального времени
-            messagingTemplate.convertAndSend("/topic/crypto/realtime", data);
-            log.info("Data updated, saved to database and sent through WebSocket (including realtime lifetime mode)");
+            List<CoinQuote> data = fetchDataFromCoinGeckoInternal();
+            if (data.isEmpty()) {
+                log.warn("Scheduled update fetched no data, nothing published");
+                return;
+            }
+            MarketSnapshot snapshot = marketDataPipeline.publish(data);
+            log.info("Data updated, tick {} published to broadcast, cache and persistence stages", snapshot.sequence());
         } catch (Exception e) {
             log.error("Error in scheduled update", e);
         }
     }
 
-    public void sendCryptoDataOnDemand() {
+    /**
+     * Answers an on-demand request of one session from the last ingested tick; the upstream API
+     * is only called by the scheduler. The serialised list is reused until the next tick.
+     */
+    public void sendCryptoDataOnDemand(String sessionId) {
         try {
-            List<Map<String, Object>> data = fetchDataFromCoinGeckoInternal();
-            messagingTemplate.convertAndSend("/topic/crypto/response", data);
-            log.info("Crypto data sent on demand through WebSocket");
+            framePublisher.sendToSession(sessionId, "/topic/crypto/response", latestSnapshotFrame());
+            log.info("Crypto data sent on demand to session: {}", sessionId);
         } catch (Exception e) {
             log.error("Error sending crypto data on demand", e);
         }
     }
 
+    private byte[] latestSnapshotFrame() {
+        MarketSnapshot snapshot = marketDataPipeline.latest();
+        if (snapshot == null) {
+            // До первого тика после старта отвечаем тем, что есть в кэше, без запроса к API
+            List<CoinQuote> cached = quoteCache.getAllCoins();
+            return framePublisher.serialize(cached != null ? cached : List.of());
+        }
+        SnapshotFrame frame = latestSnapshotFrame;
+        if (frame == null || frame.sequence() != snapshot.sequence()) {
+            frame = new SnapshotFrame(snapshot.sequence(), framePublisher.serialize(snapshot.quotes()));
+            latestSnapshotFrame = frame;
+        }
+        return frame.frame();
+    }
+
+    private record SnapshotFrame(long sequence, byte[] frame) {
+    }
+
     public void sendRealtimeCryptoData() {
         try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> cachedData = (List<Map<String, Object>>) redisTemplate.opsForValue().get(ALL_COINS_CACHE_KEY);
-            List<Map<String, Object>> data;
-            
-            if (cachedData != null && !cachedData.isEmpty()) {
-                data = cachedData;
-                log.info("Sending cached crypto data to realtime subscribers");
-            } else {
-                data = fetchDataFromCoinGeckoInternal();
-                log.info("Fetched fresh crypto data and sending to realtime subscribers");
-            }
-            
-            messagingTemplate.convertAndSend("/topic/crypto/realtime", data);
+            List<CoinQuote> data = getAllCoinsRefreshAhead().quotes();
+            framePublisher.send(framePublisher.serialize(data), "/topic/crypto/realtime");
             log.info("Crypto data sent to realtime lifetime subscribers ({} coins)", data.size());
         } catch (Exception e) {
             log.error("Error sending realtime crypto data", e);
@@ -92,253 +130,294 @@ public class CryptoService {
     }
 
 
-    public void sendSingleCryptoData(Long coinId) {
+    /**
+     * Replies to one session only (client subscribes to {@code /user/topic/crypto/single}).
+     * Lookups are served from the cache and concurrent misses for the same coin share one upstream call.
+     */
+    public void sendSingleCryptoData(Long coinId, String sessionId) {
         try {
             ResponseEntity<?> response = fetchSingleCoin(coinId);
             if (response.getBody() != null) {
-                messagingTemplate.convertAndSend("/topic/crypto/single", response.getBody());
-                log.info("Single crypto data sent for coin ID: {}", coinId);
+                framePublisher.sendToSession(sessionId, "/topic/crypto/single", framePublisher.serialize(response.getBody()));
+                log.info("Single crypto data sent for coin ID: {} to session: {}", coinId, sessionId);
             }
         } catch (Exception e) {
             log.error("Error sending single crypto data for coin ID: {}", coinId, e);
         }
     }
 
-    public ResponseEntity<List<Map<String, Object>>> fetchDataFromCoinGecko() throws IOException {
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> cachedData = (List<Map<String, Object>>) redisTemplate.opsForValue().get(ALL_COINS_CACHE_KEY);
-        if (cachedData == null) {
-            cachedData = fetchDataFromCoinGeckoInternal();
+    /**
+     * Stale-while-revalidate read of the all-coins list. Past the soft TTL the cached list is still
+     * returned at once and a single background refresh is started; only an empty cache (hard TTL passed)
+     * makes the caller wait for the upstream API.
+     */
+    public CachedQuotes getAllCoinsRefreshAhead() throws IOException {
+        CachedQuotes cached = quoteCache.getAllCoinsEntry();
+        if (cached == null) {
+            // Промах кэша: один запрос к API на ключ, остальные вызовы ждут его результат
+            return singleFlight.loadClusterWide(QuoteCache.ALL_COINS_CACHE_KEY,
+                    quoteCache::getAllCoinsEntry, this::fetchAndCacheAllCoins);
+        }
+        if (cached.isOlderThan(quotesSoftTtl, Instant.now())) {
+            refreshAllCoinsInBackground();
+        }
+        return cached;
+    }
+
+    private void refreshAllCoinsInBackground() {
+        if (!allCoinsRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    // Если другой узел уже обновил список, повторно в API не идём
+                    singleFlight.loadClusterWide(QuoteCache.ALL_COINS_CACHE_KEY,
+                            this::freshAllCoinsEntry, this::fetchAndCacheAllCoins);
+                } catch (Exception e) {
+                    log.error("Background refresh of all coins failed, stale data stays in cache", e);
+                } finally {
+                    allCoinsRefreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            allCoinsRefreshing.set(false);
+            log.warn("Background refresh of all coins rejected", e);
         }
-        return ResponseEntity.ok(cachedData);
     }
 
-    private List<Map<String, Object>> fetchDataFromCoinGeckoInternal() throws IOException {
+    private CachedQuotes freshAllCoinsEntry() {
+        CachedQuotes cached = quoteCache.getAllCoinsEntry();
+        return cached != null && !cached.isOlderThan(quotesSoftTtl, Instant.now()) ? cached : null;
+    }
+
+    private CachedQuotes fetchAndCacheAllCoins() throws IOException {
+        Instant fetchedAt = Instant.now();
+        List<CoinQuote> data = fetchDataFromCoinGeckoInternal();
+        if (data.isEmpty()) {
+            return new CachedQuotes(fetchedAt, data);
+        }
+        CachedQuotes cached = quoteCache.putAllCoins(data, fetchedAt);
+        log.info("New data fetched from API and stored in Redis cache");
+        return cached;
+    }
+
+    private List<CoinQuote> fetchDataFromCoinGeckoInternal() throws IOException {
         log.info("Fetching new data from CoinMarketCap API");
-        OkHttpClient client = new OkHttpClient();
         Request request = new Request.Builder()
                 .url(apiUrl)
                 .addHeader("X-CMC_PRO_API_KEY", apiKey)
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = httpClients.getCoinMarketCap().newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 log.error("Failed to fetch data from API: {}", response.code());
                 return new ArrayList<>();
             }
 
-            Map<String, Object> jsonResponse = objectMapper.readValue(
-                    response.body().string(),
-                    new TypeReference<Map<String, Object>>() {
-                    }
-            );
-
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> data = (List<Map<String, Object>>) jsonResponse.get("data");
-
-            List<Map<String, Object>> processedData = data.stream()
-                    .map(coin -> {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> quote = (Map<String, Object>) ((Map<String, Object>) coin.get("quote")).get("USD");
-                        Map<String, Object> result = new HashMap<>();
-                        result.put("id", coin.get("id"));
-                        result.put("name", coin.get("name"));
-                        result.put("symbol", coin.get("symbol"));
-                        result.put("slug", coin.get("slug"));
-                        result.put("circulating_supply", coin.get("circulating_supply"));
-                        result.put("total_supply", coin.get("total_supply"));
-                        result.put("price", quote.get("price"));
-                        result.put("volume_24h", quote.get("volume_24h"));
-                        result.put("volume_change_24h", quote.get("volume_change_24h"));
-                        result.put("percent_change_1h", quote.get("percent_change_1h"));
-                        result.put("percent_change_24h", quote.get("percent_change_24h"));
-                        result.put("percent_change_7d", quote.get("percent_change_7d"));
-                        result.put("percent_change_30d", quote.get("percent_change_30d"));
-                        result.put("percent_change_60d", quote.get("percent_change_60d"));
-                        result.put("percent_change_90d", quote.get("percent_change_90d"));
-                        result.put("market_cap", quote.get("market_cap"));
-                        result.put("market_cap_dominance", quote.get("market_cap_dominance"));
-                        result.put("fully_diluted_market_cap", quote.get("fully_diluted_market_cap"));
-                        result.put("last_updated", quote.get("last_updated"));
-                        return result;
-                    }).collect(Collectors.toList());
-
-            redisTemplate.opsForValue().set(ALL_COINS_CACHE_KEY, processedData, CACHE_DURATION, TimeUnit.MINUTES);
-            log.info("New data fetched from API and stored in Redis cache");
-
-            return processedData;
+            return coinMarketCapParser.parseListings(response.body().byteStream());
         }
     }
 
     public ResponseEntity<?> fetchSingleCoin(Long id) {
-        String cacheKey = SINGLE_COIN_CACHE_KEY_PREFIX + id;
-
-        @SuppressWarnings("unchecked")
-        Map<String, Object> cachedData = (Map<String, Object>) redisTemplate.opsForValue().get(cacheKey);
+        CoinQuote cachedData = quoteCache.getCoin(id);
+        if (cachedData == null) {
+            // Монеты из общего листинга уже есть в кэше all_coins, отдельный запрос к API не нужен
+            cachedData = findInAllCoins(id);
+        }
         if (cachedData != null) {
             log.info("Returning single coin data from Redis cache for id: {}", id);
             return ResponseEntity.ok(cachedData);
         }
 
+        try {
+            CoinQuote quote = singleFlight.loadClusterWide(QuoteCache.coinKey(id),
+                    () -> quoteCache.getCoin(id), () -> fetchAndCacheSingleCoin(id));
+            return quote != null ? ResponseEntity.ok(quote) : ResponseEntity.ok(new ArrayList<>());
+        } catch (IOException e) {
+            log.error("Error fetching single coin data from API", e);
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+    }
+
+    private CoinQuote findInAllCoins(long id) {
+        List<CoinQuote> allCoins = quoteCache.getAllCoins();
+        if (allCoins != null) {
+            for (CoinQuote quote : allCoins) {
+                if (quote.id() == id) {
+                    return quote;
+                }
+            }
+        }
+        return null;
+    }
+
+    private CoinQuote fetchAndCacheSingleCoin(Long id) throws IOException {
         log.info("Cache miss - fetching single coin data from CoinMarketCap API for id: {}", id);
-        OkHttpClient client = new OkHttpClient();
         Request request = new Request.Builder()
                 .url(apiUrl + "/" + id)
                 .addHeader("X-CMC_PRO_API_KEY", apiKey)
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = httpClients.getCoinMarketCap().newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 log.error("Failed to fetch single coin data from API: {}", response.code());
-                return ResponseEntity.ok(new ArrayList<>());
+                return null;
             }
 
-            Map<String, Object> jsonResponse = objectMapper.readValue(
-                    response.body().string(),
-                    new TypeReference<Map<String, Object>>() {
-                    }
-            );
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> data = (Map<String, Object>) jsonResponse.get("data");
-            @SuppressWarnings("unchecked")
-            Map<String, Object> quote = (Map<String, Object>) ((Map<String, Object>) data.get("quote")).get("USD");
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("id", data.get("id"));
-            result.put("name", data.get("name"));
-            result.put("symbol", data.get("symbol"));
-            result.put("slug", data.get("slug"));
-            result.put("circulating_supply", data.get("circulating_supply"));
-            result.put("total_supply", data.get("total_supply"));
-            result.put("price", quote.get("price"));
-            result.put("volume_24h", quote.get("volume_24h"));
-            result.put("volume_change_24h", quote.get("volume_change_24h"));
-            result.put("percent_change_1h", quote.get("percent_change_1h"));
-            result.put("percent_change_24h", quote.get("percent_change_24h"));
-            result.put("percent_change_7d", quote.get("percent_change_7d"));
-            result.put("percent_change_30d", quote.get("percent_change_30d"));
-            result.put("percent_change_60d", quote.get("percent_change_60d"));
-            result.put("percent_change_90d", quote.get("percent_change_90d"));
-            result.put("market_cap", quote.get("market_cap"));
-            result.put("market_cap_dominance", quote.get("market_cap_dominance"));
-            result.put("fully_diluted_market_cap", quote.get("fully_diluted_market_cap"));
-            result.put("last_updated", quote.get("last_updated"));
-
-            redisTemplate.opsForValue().set(cacheKey, result, CACHE_DURATION, TimeUnit.MINUTES);
+            CoinQuote quote = coinMarketCapParser.parseSingle(response.body().byteStream());
+            if (quote == null) {
+                log.error("Single coin payload for id {} has no data", id);
+                return null;
+            }
+            quoteCache.putCoin(id, quote);
             log.info("Single coin data fetched from API and stored in Redis cache for id: {}", id);
-
-            return ResponseEntity.ok(result);
-        } catch (IOException e) {
-            log.error("Error fetching single coin data from API", e);
-            return ResponseEntity.ok(new ArrayList<>());
+            return quote;
         }
     }
 
 
-    private void saveCryptoDataToDatabase(List<Map<String, Object>> data) {
-        try {
-            List<CryptoData> cryptoDataList = new ArrayList<>();
-
-            for (Map<String, Object> coin : data) {
-                CryptoData cryptoData = new CryptoData();
-                cryptoData.setSymbol((String) coin.get("symbol"));
-                cryptoData.setName((String) coin.get("name"));
-
-                if (coin.get("price") != null) {
-                    cryptoData.setPrice(new BigDecimal(coin.get("price").toString()));
-                }
-
-                if (coin.get("market_cap") != null) {
-                    cryptoData.setMarketCap(new BigDecimal(coin.get("market_cap").toString()));
-                }
-
-                if (coin.get("volume_24h") != null) {
-                    cryptoData.setVolume24h(new BigDecimal(coin.get("volume_24h").toString()));
-                }
-
-                if (coin.get("circulating_supply") != null) {
-                    cryptoData.setCirculatingSupply(new BigDecimal(coin.get("circulating_supply").toString()));
-                }
-
-                if (coin.get("total_supply") != null) {
-                    cryptoData.setTotalSupply(new BigDecimal(coin.get("total_supply").toString()));
-                }
-
-                if (coin.get("max_supply") != null) {
-                    cryptoData.setMaxSupply(new BigDecimal(coin.get("max_supply").toString()));
-                }
-
-                if (coin.get("percent_change_1h") != null) {
-                    cryptoData.setPercentChange1h(new BigDecimal(coin.get("percent_change_1h").toString()));
-                }
-
-                if (coin.get("percent_change_24h") != null) {
-                    cryptoData.setPercentChange24h(new BigDecimal(coin.get("percent_change_24h").toString()));
-                }
+    public List<CryptoData> getCryptoHistory(String symbol, String period) {
+        LocalDateTime startTime;
 
-                if (coin.get("percent_change_7d") != null) {
-                    cryptoData.setPercentChange7d(new BigDecimal(coin.get("percent_change_7d").toString()));
-                }
+        switch (period.toLowerCase()) {
+            case "24h":
+                startTime = LocalDateTime.now().minusHours(24);
+                break;
+            case "30d":
+                startTime = LocalDateTime.now().minusDays(30);
+                break;
+            case "6m":
+                startTime = LocalDateTime.now().minusDays(180);
+                break;
+            case "7d":
+            default:
+                startTime = LocalDateTime.now().minusDays(7);
+                break;
+        }
 
-                if (coin.get("rank") != null) {
-                    cryptoData.setRank((Integer) coin.get("rank"));
-                }
+        // Недавняя история отдаётся из памяти, в Postgres идём только за пределами окна стора
+        SeriesSlice slice = priceSeriesStore.slice(symbol, startTime);
+        if (slice != null) {
+            return toCryptoData(symbol, slice);
+        }
+        return cryptoDataRepository.findBySymbolAndTimestampAfterOrderByTimestampAsc(symbol, startTime);
+    }
 
-                cryptoData.setTimestamp(LocalDateTime.now());
-                cryptoDataList.add(cryptoData);
-            }
+    private static List<CryptoData> toCryptoData(String symbol, SeriesSlice slice) {
+        List<CryptoData> history = new ArrayList<>(slice.size());
+        for (int i = 0; i < slice.size(); i++) {
+            CryptoData data = new CryptoData();
+            data.setSymbol(symbol);
+            data.setTimestamp(PriceSeriesStore.toLocalDateTime(slice.timestamps()[i]));
+            data.setPrice(CoinQuote.decimal(slice.prices()[i]));
+            data.setVolume24h(CoinQuote.decimal(slice.volumes()[i]));
+            data.setMarketCap(CoinQuote.decimal(slice.marketCaps()[i]));
+            history.add(data);
+        }
+        return history;
+    }
 
-            cryptoDataRepository.saveAll(cryptoDataList);
-            log.info("Saved {} crypto data records to database", cryptoDataList.size());
+    /**
+     * Chart series for the period downsampled with LTTB to {@code maxPoints} (capped by
+     * {@code crypto.chart.max-points}, which is also the default). The result is cached per symbol,
+     * period and limit until the next tick is committed to the OHLCV rollups.
+     */
+    public List<CryptoChartData.ChartPoint> getChartHistory(String symbol, String period, Integer maxPoints) {
+        int limit = maxPoints == null
+                ? chartMaxPoints
+                : Math.max(MIN_CHART_POINTS, Math.min(maxPoints, chartMaxPoints));
+        // Версия роллапов растёт только после коммита, поэтому под новым ключом не окажутся данные прошлого тика
+        ChartKey key = new ChartKey(symbol, period.toLowerCase(), limit, cryptoOhlcvRepository.version());
+        return chartCache.get(key, k -> List.copyOf(ChartDownsampler.lttb(getChartHistory(symbol, period), limit)));
+    }
 
-        } catch (Exception e) {
-            log.error("Error saving crypto data to database", e);
-        }
+    private record ChartKey(String symbol, String period, int maxPoints, long version) {
     }
 
-    public List<CryptoData> getCryptoHistory(String symbol, String period) {
+    /**
+     * Chart series for the period read from the OHLCV rollups, with a resolution chosen so the
+     * payload stays at a few hundred points. Falls back to raw snapshots while rollups are empty.
+     */
+    public List<CryptoChartData.ChartPoint> getChartHistory(String symbol, String period) {
+        LocalDateTime now = LocalDateTime.now();
         LocalDateTime startTime;
+        ChartResolution resolution;
 
         switch (period.toLowerCase()) {
+            case "1h":
+                startTime = now.minusHours(1);
+                resolution = ChartResolution.ONE_MINUTE;
+                break;
             case "24h":
-                startTime = LocalDateTime.now().minusHours(24);
-                return cryptoDataRepository.findLast24HoursBySymbol(symbol, startTime);
-            case "7d":
-                startTime = LocalDateTime.now().minusDays(7);
-                return cryptoDataRepository.findLast7DaysBySymbol(symbol, startTime);
+                startTime = now.minusHours(24);
+                resolution = ChartResolution.FIVE_MINUTES;
+                break;
             case "30d":
-                startTime = LocalDateTime.now().minusDays(30);
-                return cryptoDataRepository.findLast30DaysBySymbol(symbol, startTime);
+                startTime = now.minusDays(30);
+                resolution = ChartResolution.ONE_HOUR;
+                break;
             case "6m":
-                startTime = LocalDateTime.now().minusDays(180);
-                return cryptoDataRepository.findLast6MonthsBySymbol(symbol, startTime);
+                startTime = now.minusDays(180);
+                resolution = ChartResolution.ONE_DAY;
+                break;
+            case "7d":
             default:
-                startTime = LocalDateTime.now().minusDays(7);
-                return cryptoDataRepository.findLast7DaysBySymbol(symbol, startTime);
+                startTime = now.minusDays(7);
+                resolution = ChartResolution.ONE_HOUR;
+                break;
         }
+
+        List<CryptoChartData.ChartPoint> points = cryptoOhlcvRepository.findBuckets(symbol, resolution, startTime);
+        if (!points.isEmpty()) {
+            return points;
+        }
+
+        log.warn("No {} rollups for {}, falling back to raw history", resolution.getCode(), symbol);
+        return getCryptoHistory(symbol, period).stream()
+                .map(data -> new CryptoChartData.ChartPoint(
+                        data.getTimestamp(),
+                        data.getPrice(),
+                        data.getVolume24h(),
+                        data.getMarketCap()
+                ))
+                .toList();
     }
 
     public List<CryptoData> getLatestCryptoData() {
-        return cryptoDataRepository.findLatestDataForAllCryptos();
+        if (latestQuoteSnapshot.isEmpty()) {
+            return cryptoDataRepository.findLatestDataForAllCryptos();
+        }
+        return latestQuoteSnapshot.all();
     }
 
     public CryptoData getLatestCryptoData(String symbol) {
-        return cryptoDataRepository.findLatestBySymbol(symbol);
+        CryptoData latest = latestQuoteSnapshot.get(symbol);
+        return latest != null ? latest : cryptoDataRepository.findLatestBySymbol(symbol);
     }
 
-    public List<String> getAllCryptoSymbols() {
-        return cryptoDataRepository.findAllSymbols();
+    /**
+     * Version of {@link #getLatestCryptoData()} and {@link #getAllCryptoSymbols()}: the newest row of the
+     * in-memory {@code crypto_latest} copy, {@code 0} while reads still go to the database.
+     */
+    public long latestDataVersion() {
+        return latestQuoteSnapshot.version();
     }
 
-    @Scheduled(cron = "0 0 2 * * ?")
-    public void cleanupOldData() {
-        try {
-            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(180); // 6 месяцев = 180 дней
-            cryptoDataRepository.deleteOldData(cutoffDate);
-            log.info("Cleaned up old crypto data older than 6 months (180 days)");
-        } catch (Exception e) {
-            log.error("Error cleaning up old crypto data", e);
+    /**
+     * Changes whenever a tick reaches the data behind {@link #getChartHistory(String, String, Integer)}:
+     * the committed OHLCV rollups and the latest quotes used for the chart header. Both parts are bumped
+     * only once their data is readable, so a version taken before reading never runs ahead of the data.
+     */
+    public String chartVersion() {
+        return cryptoOhlcvRepository.version() + "-" + cryptoOhlcvRepository.lastTickMillis()
+                + "-" + latestQuoteSnapshot.version();
+    }
+
+    public List<String> getAllCryptoSymbols() {
+        if (latestQuoteSnapshot.isEmpty()) {
+            return cryptoDataRepository.findAllSymbols();
         }
+        return latestQuoteSnapshot.symbols();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.difbriy.web.service.crypto;
+
+import com.difbriy.web.dto.crypto.PriceStats;
+import com.difbriy.web.repository.CryptoSeriesRepository;
+import com.difbriy.web.service.crypto.series.PriceSeriesStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price aggregates (min, max, average, first, last, sample count) for the stats endpoints.
+ * Computed in one pass over the in-memory series, or by one aggregate query when the window is older than
+ * the store holds, and memoised until the next tick reaches the store.
+ */
+@Service
+@Slf4j
+public class CryptoStatsService {
+
+    public static final Duration DAY = Duration.ofHours(24);
+    public static final Duration WEEK = Duration.ofDays(7);
+
+    private final PriceSeriesStore priceSeriesStore;
+    private final CryptoSeriesRepository cryptoSeriesRepository;
+    private final Map<String, Memo> memo = new ConcurrentHashMap<>();
+
+    public CryptoStatsService(PriceSeriesStore priceSeriesStore, CryptoSeriesRepository cryptoSeriesRepository) {
+        this.priceSeriesStore = priceSeriesStore;
+        this.cryptoSeriesRepository = cryptoSeriesRepository;
+    }
+
+    public PriceStats stats(String symbol, Duration window) {
+        // Версию берём до расчёта: если тик придёт посередине, следующий запрос просто пересчитает
+        long version = priceSeriesStore.version();
+        String key = symbol + '|' + window;
+        Memo cached = memo.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached.stats();
+        }
+
+        PriceStats stats = compute(symbol, window);
+        // Неизвестные символы не запоминаем, иначе карта растёт от любого пути в запросе
+        if (stats.samples() > 0) {
+            memo.put(key, new Memo(version, stats));
+        }
+        return stats;
+    }
+
+    private PriceStats compute(String symbol, Duration window) {
+        LocalDateTime from = LocalDateTime.now().minus(window);
+        PriceStats stats = priceSeriesStore.stats(symbol, from);
+        if (stats != null) {
+            return stats;
+        }
+        log.debug("Stats window {} for {} is not in memory, aggregating in the database", window, symbol);
+        return cryptoSeriesRepository.priceStatsSince(symbol, from);
+    }
+
+    private record Memo(long version, PriceStats stats) {
+    }
+}
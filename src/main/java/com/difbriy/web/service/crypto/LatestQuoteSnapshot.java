@@ -0,0 +1,83 @@
+package com.difbriy.web.service.crypto;
+
+import com.difbriy.web.entity.CryptoData;
+import com.difbriy.web.repository.CryptoDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process copy of {@code crypto_latest}. Readers get an immutable view, the persistence stage
+ * reloads it after each written tick and swaps the reference, so reads never touch the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LatestQuoteSnapshot {
+
+    private final CryptoDataRepository cryptoDataRepository;
+    private final AtomicReference<View> current = new AtomicReference<>(View.EMPTY);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Error loading latest crypto snapshot on startup", e);
+        }
+    }
+
+    /**
+     * Reloads the projection, O(symbols).
+     */
+    public void refresh() {
+        List<CryptoData> byRank = List.copyOf(cryptoDataRepository.findLatestDataForAllCryptos());
+        Map<String, CryptoData> bySymbol = new LinkedHashMap<>();
+        long lastUpdated = 0;
+        for (CryptoData data : byRank) {
+            bySymbol.putIfAbsent(data.getSymbol(), data);
+            if (data.getTimestamp() != null) {
+                lastUpdated = Math.max(lastUpdated,
+                        data.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        current.set(new View(byRank, Map.copyOf(bySymbol), lastUpdated));
+        log.debug("Latest crypto snapshot refreshed with {} symbols", byRank.size());
+    }
+
+    public List<CryptoData> all() {
+        return current.get().byRank();
+    }
+
+    public CryptoData get(String symbol) {
+        return current.get().bySymbol().get(symbol);
+    }
+
+    public List<String> symbols() {
+        return current.get().bySymbol().keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Newest row timestamp (epoch millis) of the loaded projection. Taken from the data itself, so every node
+     * reading the same {@code crypto_latest} reports the same value; {@code 0} while empty.
+     */
+    public long version() {
+        return current.get().lastUpdated();
+    }
+
+    public boolean isEmpty() {
+        return current.get().byRank().isEmpty();
+    }
+
+    private record View(List<CryptoData> byRank, Map<String, CryptoData> bySymbol, long lastUpdated) {
+        static final View EMPTY = new View(List.of(), Map.of(), 0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.difbriy.web.service.crypto;
+
+import com.difbriy.web.dto.crypto.CachedQuotes;
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Two-tier quote cache: an in-process Caffeine near-cache (L1) in front of Redis (L2).
+ * Writes go to both tiers and are announced on a Redis channel so other nodes evict their L1 copy;
+ * L1 entries also expire on their own, which bounds staleness if an invalidation is lost.
+ * Every entry carries its upstream fetch time; {@code all_coins} is kept in Redis for a hard TTL
+ * well past the refresh interval so readers can be served a stale list while it is refreshed.
+ */
+@Component
+@Slf4j
+public class QuoteCache implements MessageListener {
+    static final String ALL_COINS_CACHE_KEY = "all_coins";
+    private static final String SINGLE_COIN_CACHE_KEY_PREFIX = "coin:";
+    private static final long CACHE_DURATION = 1;
+
+    public static final String INVALIDATION_CHANNEL = "quote-cache:invalidate";
+
+    private final RedisTemplate<String, CachedQuotes> coinQuoteRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<String, CachedQuotes> nearCache;
+    private final Timer redisReads;
+    private final Duration allCoinsHardTtl;
+    private volatile Instant allCoinsFetchedAt;
+    // Свои же сообщения об инвалидации узел пропускает, L1 у него уже свежий
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public QuoteCache(RedisTemplate<String, CachedQuotes> coinQuoteRedisTemplate,
+                      StringRedisTemplate stringRedisTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${crypto.cache.near.ttl:30s}") Duration nearCacheTtl,
+                      @Value("${crypto.cache.near.max-size:1000}") long nearCacheMaxSize,
+                      @Value("${crypto.cache.quotes.hard-ttl:5m}") Duration allCoinsHardTtl) {
+        this.coinQuoteRedisTemplate = coinQuoteRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.allCoinsHardTtl = allCoinsHardTtl;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfterWrite(nearCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "quotes.near");
+        this.redisReads = Timer.builder("crypto.cache.redis.get")
+                .description("Quote cache reads that missed the near-cache and went to Redis")
+                .register(meterRegistry);
+        Gauge.builder("crypto.cache.all_coins.age", this, QuoteCache::allCoinsAgeSeconds)
+                .description("Age in seconds of the newest all-coins list seen by this node")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public CachedQuotes getAllCoinsEntry() {
+        CachedQuotes cached = get(ALL_COINS_CACHE_KEY);
+        if (cached != null) {
+            noteAllCoins(cached.fetchedAt());
+        }
+        return cached;
+    }
+
+    public List<CoinQuote> getAllCoins() {
+        CachedQuotes cached = getAllCoinsEntry();
+        return cached == null ? null : cached.quotes();
+    }
+
+    public CachedQuotes putAllCoins(List<CoinQuote> quotes, Instant fetchedAt) {
+        CachedQuotes cached = new CachedQuotes(fetchedAt, quotes);
+        put(ALL_COINS_CACHE_KEY, cached, allCoinsHardTtl);
+        noteAllCoins(fetchedAt);
+        return cached;
+    }
+
+    public CoinQuote getCoin(long id) {
+        CachedQuotes cached = get(coinKey(id));
+        return cached == null || cached.quotes().isEmpty() ? null : cached.quotes().get(0);
+    }
+
+    public void putCoin(long id, CoinQuote quote) {
+        put(coinKey(id), new CachedQuotes(Instant.now(), List.of(quote)), Duration.ofMinutes(CACHE_DURATION));
+    }
+
+    static String coinKey(long id) {
+        return SINGLE_COIN_CACHE_KEY_PREFIX + id;
+    }
+
+    private CachedQuotes get(String key) {
+        CachedQuotes local = nearCache.getIfPresent(key);
+        if (local != null) {
+            return local;
+        }
+        CachedQuotes remote = redisReads.record(() -> coinQuoteRedisTemplate.opsForValue().get(key));
+        if (remote != null) {
+            nearCache.put(key, remote);
+        }
+        return remote;
+    }
+
+    private void put(String key, CachedQuotes cached, Duration ttl) {
+        coinQuoteRedisTemplate.opsForValue().set(key, cached, ttl);
+        nearCache.put(key, cached);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "|" + key);
+        } catch (Exception e) {
+            log.warn("Could not publish quote cache invalidation for {}", key, e);
+        }
+    }
+
+    private void noteAllCoins(Instant fetchedAt) {
+        Instant seen = allCoinsFetchedAt;
+        if (seen == null || fetchedAt.isAfter(seen)) {
+            allCoinsFetchedAt = fetchedAt;
+        }
+    }
+
+    private double allCoinsAgeSeconds() {
+        Instant seen = allCoinsFetchedAt;
+        return seen == null ? Double.NaN : Duration.between(seen, Instant.now()).toMillis() / 1000.0;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.startsWith(nodeId + "|")) {
+            return;
+        }
+        nearCache.invalidate(body.substring(separator + 1));
+    }
+}
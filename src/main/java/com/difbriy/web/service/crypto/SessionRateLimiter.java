@@ -0,0 +1,53 @@
+package com.difbriy.web.service.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session minimum interval between on-demand WebSocket requests.
+ * State lives only as long as the session and is dropped on disconnect.
+ */
+@Component
+public class SessionRateLimiter {
+
+    private final Map<String, Long> lastAllowed = new ConcurrentHashMap<>();
+    private final long minIntervalNanos;
+    private final Counter rejected;
+
+    public SessionRateLimiter(MeterRegistry meterRegistry,
+                              @Value("${crypto.websocket.on-demand.min-interval:5s}") Duration minInterval) {
+        this.minIntervalNanos = minInterval.toNanos();
+        this.rejected = Counter.builder("crypto.websocket.on_demand.rejected")
+                .description("On-demand WebSocket requests rejected by the per-session rate limit")
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire(String sessionId) {
+        long now = System.nanoTime();
+        boolean[] allowed = new boolean[1];
+        lastAllowed.compute(sessionId, (id, last) -> {
+            if (last == null || now - last >= minIntervalNanos) {
+                allowed[0] = true;
+                return now;
+            }
+            return last;
+        });
+        if (!allowed[0]) {
+            rejected.increment();
+        }
+        return allowed[0];
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        lastAllowed.remove(event.getSessionId());
+    }
+}
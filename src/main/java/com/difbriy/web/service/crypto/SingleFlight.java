@@ -0,0 +1,175 @@
+package com.difbriy.web.service.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent cache-miss loads of the same key into one upstream call.
+ * On one node callers of a key share a single {@link CompletableFuture}; {@link #loadClusterWide}
+ * additionally takes a short Redis lock so that only one node refills the key, the others
+ * wait for the value to appear in the cache.
+ */
+@Component
+@Slf4j
+public class SingleFlight {
+
+    private static final String LOCK_PREFIX = "lock:";
+
+    // Снимаем лок, только если он всё ещё наш: по TTL его мог перехватить другой узел
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final Duration lockTtl;
+    private final Duration pollInterval;
+    private final Counter coalesced;
+    private final Counter lockWaits;
+
+    public SingleFlight(StringRedisTemplate redisTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${crypto.cache.lock.ttl:10s}") Duration lockTtl,
+                        @Value("${crypto.cache.lock.poll-interval:100ms}") Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.lockTtl = lockTtl;
+        this.pollInterval = pollInterval;
+        this.coalesced = Counter.builder("crypto.cache.singleflight.coalesced")
+                .description("Cache-miss loads that joined a fetch already in flight on this node")
+                .register(meterRegistry);
+        this.lockWaits = Counter.builder("crypto.cache.singleflight.lock.waits")
+                .description("Cache-miss loads that waited for another node to refill the key")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    /**
+     * Runs {@code loader} unless a load of {@code key} is already in flight on this node,
+     * in which case the caller waits for and shares its result (or its exception, errors included).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Loader<T> loader) throws IOException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T value = loader.load();
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Любой выход из загрузчика должен завершить future, иначе ждущие повиснут навсегда
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Same as {@link #load}, with the upstream call guarded by a Redis lock across nodes.
+     * A node that does not get the lock polls {@code cached} until the value shows up; if the
+     * lock holder dies or Redis is unavailable the caller loads by itself once the lock TTL has passed.
+     */
+    public <T> T loadClusterWide(String key, Supplier<T> cached, Loader<T> loader) throws IOException {
+        return load(key, () -> {
+            String lockKey = LOCK_PREFIX + key;
+            String token = UUID.randomUUID().toString();
+            long deadline = System.nanoTime() + lockTtl.toNanos();
+
+            boolean waited = false;
+            while (!tryLock(lockKey, token)) {
+                if (!waited) {
+                    lockWaits.increment();
+                    waited = true;
+                }
+                if (System.nanoTime() >= deadline) {
+                    log.warn("Timed out waiting for cache fill of {}, loading without the lock", key);
+                    return loader.load();
+                }
+                sleep(pollInterval);
+                T value = cached.get();
+                if (value != null) {
+                    return value;
+                }
+            }
+
+            try {
+                // Пока ждали лок, значение мог положить предыдущий владелец
+                T value = cached.get();
+                return value != null ? value : loader.load();
+            } finally {
+                unlock(lockKey, token);
+            }
+        });
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl));
+        } catch (Exception e) {
+            log.warn("Redis lock {} unavailable, falling back to node-local single flight", lockKey, e);
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("Could not release Redis lock {}, it expires in {}", lockKey, lockTtl, e);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws IOException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an in-flight fetch", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void sleep(Duration duration) throws IOException {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a Redis lock", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.difbriy.web.service.crypto;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks STOMP subscriptions to per-symbol destinations ({@code /topic/crypto/{symbol}}) so the broadcast
+ * only serialises and sends symbols somebody is watching. Destinations are counted as subscribed, the symbol
+ * match is case-insensitive ({@code /topic/crypto/btc} and {@code /topic/crypto/BTC} both receive BTC).
+ */
+@Component
+@Slf4j
+public class SymbolSubscriptionRegistry {
+
+    public static final String SYMBOL_DESTINATION_PREFIX = "/topic/crypto/";
+
+    // Служебные топики под тем же префиксом, символом монеты не считаются
+    private static final Set<String> RESERVED = Set.of(
+            "response", "realtime", "single", "delta", "keyframe", "chart");
+
+    // sessionId -> (subscriptionId -> destination)
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> destinations = new ConcurrentHashMap<>();
+
+    public SymbolSubscriptionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("crypto.broadcast.symbol.destinations", destinations, Map::size)
+                .description("Per-symbol destinations with at least one subscriber")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Destinations with at least one subscriber, e.g. {@code /topic/crypto/BTC}.
+     */
+    public Set<String> subscribedDestinations() {
+        return destinations.keySet();
+    }
+
+    public static String symbolOf(String destination) {
+        return destination.substring(SYMBOL_DESTINATION_PREFIX.length()).toUpperCase();
+    }
+
+    static boolean isSymbolDestination(String destination) {
+        if (destination == null || !destination.startsWith(SYMBOL_DESTINATION_PREFIX)) {
+            return false;
+        }
+        String rest = destination.substring(SYMBOL_DESTINATION_PREFIX.length());
+        return !rest.isEmpty() && rest.indexOf('/') < 0 && !RESERVED.contains(rest.toLowerCase());
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (!isSymbolDestination(destination) || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), destination);
+        if (previous != null) {
+            release(previous);
+        }
+        destinations.merge(destination, 1, Integer::sum);
+        log.debug("Session {} subscribed to {}", accessor.getSessionId(), destination);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String destination = subscriptions.remove(accessor.getSubscriptionId());
+        if (destination != null) {
+            release(destination);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(String destination) {
+        destinations.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,86 @@
+package com.difbriy.web.service.crypto.chart;
+
+import com.difbriy.web.dto.crypto.CryptoChartData;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of chart series. The first and last points are kept and every
+ * bucket in between contributes the point forming the largest triangle with the previously kept point and
+ * the average of the next bucket, which preserves peaks and troughs far better than taking every n-th point.
+ * Kept points are the original objects, OHLC fields included.
+ */
+public final class ChartDownsampler {
+
+    private ChartDownsampler() {
+    }
+
+    /**
+     * Reduces {@code points} (ordered by time) to at most {@code maxPoints}. Series that already fit,
+     * and limits below 3, return the input unchanged.
+     */
+    public static List<CryptoChartData.ChartPoint> lttb(List<CryptoChartData.ChartPoint> points, int maxPoints) {
+        int n = points.size();
+        if (maxPoints < 3 || n <= maxPoints) {
+            return points;
+        }
+
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            CryptoChartData.ChartPoint point = points.get(i);
+            x[i] = point.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            y[i] = point.getPrice() == null ? Double.NaN : point.getPrice().doubleValue();
+        }
+
+        List<CryptoChartData.ChartPoint> sampled = new ArrayList<>(maxPoints);
+        sampled.add(points.get(0));
+        double bucketSize = (double) (n - 2) / (maxPoints - 2);
+        int previous = 0;
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            // Среднее следующего бакета — третья вершина треугольника
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            int counted = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                if (!Double.isNaN(y[i])) {
+                    avgX += x[i];
+                    avgY += y[i];
+                    counted++;
+                }
+            }
+            if (counted > 0) {
+                avgX /= counted;
+                avgY /= counted;
+            } else {
+                avgX = x[n - 1];
+                avgY = y[n - 1];
+            }
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int selected = start;
+            for (int i = start; i < end; i++) {
+                // Удвоенная площадь; точки без цены (NaN) никогда не выигрывают сравнение
+                double area = Math.abs((x[previous] - avgX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (avgY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+
+            sampled.add(points.get(selected));
+            previous = selected;
+        }
+
+        sampled.add(points.get(n - 1));
+        return sampled;
+    }
+}
@@ -0,0 +1,144 @@
+package com.difbriy.web.service.crypto.delta;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.BroadcastFramePublisher;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Realtime price stream that sends only what changed between ticks.
+ * <p>
+ * Every tick goes to {@value #DELTA_DESTINATION} as a {@code delta} message holding its sequence and the
+ * sequence it is based on ({@code base}), the changed fields per coin, full objects for new coins and the
+ * ids of coins that left the listing. A client that sees {@code base} differ from the last sequence it applied
+ * has missed a message and asks for a resync on {@code /app/crypto/delta/resync}. Full state ({@code keyframe})
+ * comes as the reply to a subscription to {@code /app/crypto/delta/keyframe}, which goes straight to the
+ * subscribing session without a broker subscription to race with, and on resync to
+ * {@code /user}{@value #KEYFRAME_DESTINATION}.
+ */
+@Component
+public class QuoteDeltaStream {
+
+    public static final String DELTA_DESTINATION = "/topic/crypto/delta";
+    public static final String KEYFRAME_DESTINATION = "/topic/crypto/keyframe";
+
+    private final BroadcastFramePublisher framePublisher;
+
+    private volatile Keyframe current;
+
+    public QuoteDeltaStream(BroadcastFramePublisher framePublisher) {
+        this.framePublisher = framePublisher;
+    }
+
+    /**
+     * Called from the pipeline stage, always from the same thread.
+     */
+    public void publish(MarketSnapshot snapshot) {
+        Keyframe previous = current;
+        Keyframe next = new Keyframe(snapshot);
+        current = next;
+
+        if (previous == null) {
+            // Базы для дельты ещё нет: первый тик после старта уходит целиком
+            framePublisher.send(next.frame(), DELTA_DESTINATION);
+            return;
+        }
+        framePublisher.send(framePublisher.serialize(delta(previous, next)), DELTA_DESTINATION);
+    }
+
+    public void sendKeyframe(String sessionId) {
+        Keyframe keyframe = current;
+        if (keyframe != null) {
+            framePublisher.sendToSession(sessionId, KEYFRAME_DESTINATION, keyframe.frame());
+        }
+    }
+
+    /**
+     * Full state after the latest tick as pre-serialised JSON for a subscription reply,
+     * or {@code null} before the first tick.
+     */
+    public RawValue keyframe() {
+        Keyframe keyframe = current;
+        return keyframe != null ? keyframe.json() : null;
+    }
+
+    private static Map<String, Object> delta(Keyframe previous, Keyframe next) {
+        List<Map<String, Object>> changes = new ArrayList<>();
+        List<CoinQuote> added = new ArrayList<>();
+        for (CoinQuote quote : next.snapshot.quotes()) {
+            CoinQuote before = previous.byId.get(quote.id());
+            if (before == null) {
+                added.add(quote);
+                continue;
+            }
+            Map<String, Object> change = new LinkedHashMap<>();
+            change.put("id", quote.id());
+            if (QuoteFields.diff(before, quote, change)) {
+                changes.add(change);
+            }
+        }
+
+        List<Long> removed = new ArrayList<>();
+        for (Long id : previous.byId.keySet()) {
+            if (!next.byId.containsKey(id)) {
+                removed.add(id);
+            }
+        }
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "delta");
+        message.put("seq", next.snapshot.sequence());
+        message.put("base", previous.snapshot.sequence());
+        message.put("fetched_at", next.snapshot.fetchedAt().toEpochMilli());
+        message.put("changes", changes);
+        message.put("added", added);
+        message.put("removed", removed);
+        return message;
+    }
+
+    /**
+     * Full state after one tick. The serialised frame is built on first request and reused by every resync.
+     */
+    private final class Keyframe {
+        private final MarketSnapshot snapshot;
+        private final Map<Long, CoinQuote> byId;
+        private byte[] frame;
+        private RawValue json;
+
+        Keyframe(MarketSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.byId = new HashMap<>(snapshot.quotes().size() * 2);
+            for (CoinQuote quote : snapshot.quotes()) {
+                byId.put(quote.id(), quote);
+            }
+        }
+
+        synchronized byte[] frame() {
+            if (frame == null) {
+                Map<String, Object> message = new LinkedHashMap<>();
+                message.put("type", "keyframe");
+                message.put("seq", snapshot.sequence());
+                message.put("fetched_at", snapshot.fetchedAt().toEpochMilli());
+                message.put("coins", snapshot.quotes());
+                frame = framePublisher.serialize(message);
+            }
+            return frame;
+        }
+
+        // Ответ на подписку идёт через конвертер брокера; RawValue он пишет как есть, без повторной сериализации
+        synchronized RawValue json() {
+            if (json == null) {
+                json = new RawValue(new String(frame(), StandardCharsets.UTF_8));
+            }
+            return json;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.difbriy.web.service.crypto.delta;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Changed-field diff of two quotes of the same coin. Field names are those of
+ * {@link com.difbriy.web.serializer.CoinQuoteJsonSerializer}, so a delta applies directly onto the
+ * objects clients already hold from the full snapshot; missing numbers are sent as {@code null}.
+ */
+final class QuoteFields {
+
+    private record Field(String name, Function<CoinQuote, Object> value) {
+    }
+
+    private static final List<Field> FIELDS = List.of(
+            new Field("name", CoinQuote::name),
+            new Field("symbol", CoinQuote::symbol),
+            new Field("slug", CoinQuote::slug),
+            new Field("rank", CoinQuote::rank),
+            new Field("circulating_supply", q -> number(q.circulatingSupply())),
+            new Field("total_supply", q -> number(q.totalSupply())),
+            new Field("max_supply", q -> number(q.maxSupply())),
+            new Field("price", q -> number(q.price())),
+            new Field("volume_24h", q -> number(q.volume24h())),
+            new Field("volume_change_24h", q -> number(q.volumeChange24h())),
+            new Field("percent_change_1h", q -> number(q.percentChange1h())),
+            new Field("percent_change_24h", q -> number(q.percentChange24h())),
+            new Field("percent_change_7d", q -> number(q.percentChange7d())),
+            new Field("percent_change_30d", q -> number(q.percentChange30d())),
+            new Field("percent_change_60d", q -> number(q.percentChange60d())),
+            new Field("percent_change_90d", q -> number(q.percentChange90d())),
+            new Field("market_cap", q -> number(q.marketCap())),
+            new Field("market_cap_dominance", q -> number(q.marketCapDominance())),
+            new Field("fully_diluted_market_cap", q -> number(q.fullyDilutedMarketCap())),
+            new Field("last_updated", CoinQuote::lastUpdated)
+    );
+
+    private QuoteFields() {
+    }
+
+    /**
+     * Puts every field that differs between {@code previous} and {@code current} into {@code target}.
+     *
+     * @return whether anything changed
+     */
+    static boolean diff(CoinQuote previous, CoinQuote current, Map<String, Object> target) {
+        boolean changed = false;
+        for (Field field : FIELDS) {
+            Object value = field.value().apply(current);
+            if (!Objects.equals(field.value().apply(previous), value)) {
+                target.put(field.name(), value);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static Double number(double value) {
+        return CoinQuote.isPresent(value) ? value : null;
+    }
+}
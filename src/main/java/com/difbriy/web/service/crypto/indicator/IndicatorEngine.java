@@ -0,0 +1,101 @@
+package com.difbriy.web.service.crypto.indicator;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.series.PriceSeriesStore;
+import com.difbriy.web.service.crypto.series.SeriesSlice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming technical indicators per symbol. Each tick updates the state in O(1) and publishes an
+ * immutable {@link IndicatorSnapshot}, so reads are a map lookup. Rebuilt at startup from the
+ * in-memory price series, which is why it warms up after {@link PriceSeriesStore}.
+ */
+@Component
+@Slf4j
+public class IndicatorEngine {
+
+    private final PriceSeriesStore priceSeriesStore;
+    private final Duration window;
+    private final int capacity;
+    private final Object updateLock = new Object();
+    private final Map<String, IndicatorState> states = new HashMap<>();
+    private final Map<String, IndicatorSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public IndicatorEngine(PriceSeriesStore priceSeriesStore,
+                           @Value("${crypto.indicators.window:${crypto.series.window:7d}}") Duration window,
+                           @Value("${crypto.series.tick-interval:30s}") Duration tickInterval) {
+        this.priceSeriesStore = priceSeriesStore;
+        this.window = window;
+        this.capacity = (int) (window.toMillis() / tickInterval.toMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        LocalDateTime from = LocalDateTime.now().minus(window);
+        // Под тем же замком, что и обновления: тики, уже учтённые в срезе, стадия потом отбросит по timestamp
+        int warmed = 0;
+        synchronized (updateLock) {
+            Map<String, IndicatorState> rebuilt = new HashMap<>();
+            for (String symbol : priceSeriesStore.symbols()) {
+                SeriesSlice slice = priceSeriesStore.slice(symbol, from);
+                if (slice == null) {
+                    log.warn("Price series store does not cover the indicator window, indicators start from live ticks");
+                    return;
+                }
+                IndicatorState state = new IndicatorState(capacity);
+                for (int i = 0; i < slice.size(); i++) {
+                    state.update(slice.timestamps()[i], slice.prices()[i]);
+                }
+                rebuilt.put(symbol, state);
+            }
+            // Стадии независимы: IndicatorStage мог применить тик, который PriceSeriesStage ещё не дописал.
+            // Такое живое состояние новее среза, его не заменяем, иначе тик потерян до следующего прогрева
+            for (Map.Entry<String, IndicatorState> entry : rebuilt.entrySet()) {
+                IndicatorState live = states.get(entry.getKey());
+                if (live != null && live.lastTimestamp() >= entry.getValue().lastTimestamp()) {
+                    continue;
+                }
+                states.put(entry.getKey(), entry.getValue());
+                snapshots.put(entry.getKey(), entry.getValue().snapshot());
+                warmed++;
+            }
+        }
+        log.info("Indicator engine warmed for {} symbols over {}", warmed, window);
+    }
+
+    public void update(MarketSnapshot snapshot) {
+        long timestamp = snapshot.fetchedAt().toEpochMilli();
+        synchronized (updateLock) {
+            for (CoinQuote quote : snapshot.quotes()) {
+                if (quote.symbol() == null) {
+                    continue;
+                }
+                IndicatorState state = states.computeIfAbsent(quote.symbol(), s -> new IndicatorState(capacity));
+                if (state.update(timestamp, quote.price())) {
+                    snapshots.put(quote.symbol(), state.snapshot());
+                }
+            }
+        }
+    }
+
+    /**
+     * Latest indicators of the symbol, {@code null} if no tick has been seen for it.
+     */
+    public IndicatorSnapshot get(String symbol) {
+        return snapshots.get(symbol);
+    }
+}
@@ -0,0 +1,158 @@
+package com.difbriy.web.service.crypto.indicator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Batch indicator kernels over {@code double[]} price series. Loops are written over primitive arrays
+ * with independent accumulators so the JIT can keep them in registers and pipeline them;
+ * {@link BigDecimal} only appears in {@link #toDecimal} at the DTO / entity boundary.
+ * The streaming counterpart for live ticks is {@link IndicatorState}.
+ */
+public final class IndicatorMath {
+
+    private IndicatorMath() {
+    }
+
+    public static double[] toArray(List<BigDecimal> values) {
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            BigDecimal value = values.get(i);
+            result[i] = value == null ? Double.NaN : value.doubleValue();
+        }
+        return result;
+    }
+
+    /**
+     * Converts a kernel result to {@link BigDecimal}, {@code null} for NaN.
+     */
+    public static BigDecimal toDecimal(double value, int scale) {
+        return Double.isNaN(value) || Double.isInfinite(value)
+                ? null
+                : BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    public static double sum(double[] values, int from, int to) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += values[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    public static double mean(double[] values, int from, int to) {
+        return to > from ? sum(values, from, to) / (to - from) : Double.NaN;
+    }
+
+    /**
+     * Mean of the last {@code period} values, or of all values when there are fewer.
+     */
+    public static double sma(double[] values, int period) {
+        return mean(values, Math.max(0, values.length - period), values.length);
+    }
+
+    /**
+     * Exponential moving average seeded with the SMA of the first {@code period} values.
+     */
+    public static double ema(double[] values, int period) {
+        if (values.length < period) {
+            return Double.NaN;
+        }
+        double alpha = 2.0 / (period + 1);
+        double ema = mean(values, 0, period);
+        for (int i = period; i < values.length; i++) {
+            ema += alpha * (values[i] - ema);
+        }
+        return ema;
+    }
+
+    /**
+     * Wilder RSI over the whole series: the first {@code period} changes seed the averages,
+     * later ones are smoothed with factor {@code 1/period}.
+     */
+    public static double rsi(double[] prices, int period) {
+        if (prices.length <= period) {
+            return Double.NaN;
+        }
+        double avgGain = 0;
+        double avgLoss = 0;
+        for (int i = 1; i <= period; i++) {
+            double change = prices[i] - prices[i - 1];
+            avgGain += Math.max(change, 0);
+            avgLoss += Math.max(-change, 0);
+        }
+        avgGain /= period;
+        avgLoss /= period;
+        for (int i = period + 1; i < prices.length; i++) {
+            double change = prices[i] - prices[i - 1];
+            avgGain = (avgGain * (period - 1) + Math.max(change, 0)) / period;
+            avgLoss = (avgLoss * (period - 1) + Math.max(-change, 0)) / period;
+        }
+        return avgLoss == 0 ? 100 : 100 - 100 / (1 + avgGain / avgLoss);
+    }
+
+    /**
+     * Population standard deviation, two passes for numerical stability.
+     */
+    public static double stdDev(double[] values, int from, int to) {
+        if (to - from < 1) {
+            return Double.NaN;
+        }
+        double mean = mean(values, from, to);
+        double s0 = 0;
+        double s1 = 0;
+        int i = from;
+        for (; i + 1 < to; i += 2) {
+            double d0 = values[i] - mean;
+            double d1 = values[i + 1] - mean;
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+        }
+        if (i < to) {
+            double d = values[i] - mean;
+            s0 += d * d;
+        }
+        return Math.sqrt((s0 + s1) / (to - from));
+    }
+
+    /**
+     * Standard deviation of tick-to-tick returns in percent, the same measure {@link IndicatorState} keeps.
+     */
+    public static double returnVolatility(double[] prices) {
+        if (prices.length < 2) {
+            return Double.NaN;
+        }
+        double[] returns = new double[prices.length - 1];
+        for (int i = 1; i < prices.length; i++) {
+            returns[i - 1] = (prices[i] - prices[i - 1]) / prices[i - 1] * 100;
+        }
+        return stdDev(returns, 0, returns.length);
+    }
+
+    public static double min(double[] values, int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return to > from ? min : Double.NaN;
+    }
+
+    public static double max(double[] values, int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return to > from ? max : Double.NaN;
+    }
+}
@@ -0,0 +1,23 @@
+package com.difbriy.web.service.crypto.indicator;
+
+/**
+ * Indicator values of one symbol after the latest tick. A value that is not defined yet
+ * (too few samples) is {@link Double#NaN}.
+ *
+ * @param volatility population standard deviation of tick-to-tick returns, in percent
+ * @param min        lowest price inside the indicator window
+ * @param max        highest price inside the indicator window
+ */
+public record IndicatorSnapshot(
+        long timestamp,
+        double price,
+        double rsi,
+        double sma20,
+        double sma50,
+        double sma200,
+        double volatility,
+        double min,
+        double max,
+        long samples
+) {
+}
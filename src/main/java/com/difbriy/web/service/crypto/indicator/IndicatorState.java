@@ -0,0 +1,223 @@
+package com.difbriy.web.service.crypto.indicator;
+
+/**
+ * Incremental indicators of one symbol over a sliding window of the last {@code capacity} prices:
+ * Wilder RSI-14, SMA 20/50/200 as running sums, Welford mean/variance of returns with removal,
+ * and min/max through monotonic deques. Every update and read is O(1) (amortised for the deques).
+ * Not thread-safe, {@link IndicatorEngine} serialises updates.
+ */
+final class IndicatorState {
+
+    static final int RSI_PERIOD = 14;
+    static final int[] SMA_PERIODS = {20, 50, 200};
+
+    private final double[] prices;
+    private final int capacity;
+    private long count;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    private final double[] smaSums = new double[SMA_PERIODS.length];
+
+    private int rsiSeeded;
+    private double avgGain;
+    private double avgLoss;
+
+    private long returnCount;
+    private double returnMean;
+    private double returnM2;
+
+    private final SequenceDeque minDeque;
+    private final SequenceDeque maxDeque;
+
+    IndicatorState(int capacity) {
+        if (capacity <= SMA_PERIODS[SMA_PERIODS.length - 1]) {
+            throw new IllegalArgumentException("Indicator window must hold more than "
+                    + SMA_PERIODS[SMA_PERIODS.length - 1] + " samples, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.prices = new double[capacity];
+        this.minDeque = new SequenceDeque(capacity);
+        this.maxDeque = new SequenceDeque(capacity);
+    }
+
+    /**
+     * Adds a price sample. Samples that are not newer than the last one, or have no usable price, are ignored.
+     */
+    boolean update(long timestamp, double price) {
+        if (timestamp <= lastTimestamp || !(price > 0) || Double.isInfinite(price)) {
+            return false;
+        }
+        double previous = count > 0 ? priceAt(count - 1) : Double.NaN;
+
+        // Всё, что покидает окна, читается до перезаписи слота в кольце
+        if (count >= capacity && capacity > 1) {
+            removeReturn(percentReturn(priceAt(count - capacity), priceAt(count - capacity + 1)));
+        }
+        for (int i = 0; i < SMA_PERIODS.length; i++) {
+            smaSums[i] += price;
+            if (count >= SMA_PERIODS[i]) {
+                smaSums[i] -= priceAt(count - SMA_PERIODS[i]);
+            }
+        }
+        if (!Double.isNaN(previous)) {
+            updateRsi(price - previous);
+            addReturn(percentReturn(previous, price));
+        }
+
+        long sequence = count;
+        long oldestInWindow = sequence - capacity + 1;
+        minDeque.evictBefore(oldestInWindow);
+        maxDeque.evictBefore(oldestInWindow);
+        while (!minDeque.isEmpty() && priceAt(minDeque.last()) >= price) {
+            minDeque.removeLast();
+        }
+        while (!maxDeque.isEmpty() && priceAt(maxDeque.last()) <= price) {
+            maxDeque.removeLast();
+        }
+
+        prices[(int) (sequence % capacity)] = price;
+        minDeque.addLast(sequence);
+        maxDeque.addLast(sequence);
+        count++;
+        lastTimestamp = timestamp;
+
+        // Периодически пересчитываем суммы с нуля, чтобы не копилась ошибка вычитаний
+        if (count % capacity == 0) {
+            recalibrate();
+        }
+        return true;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    IndicatorSnapshot snapshot() {
+        return new IndicatorSnapshot(
+                lastTimestamp,
+                count > 0 ? priceAt(count - 1) : Double.NaN,
+                rsi(),
+                sma(0),
+                sma(1),
+                sma(2),
+                returnCount > 0 ? Math.sqrt(Math.max(returnM2, 0) / returnCount) : Double.NaN,
+                minDeque.isEmpty() ? Double.NaN : priceAt(minDeque.first()),
+                maxDeque.isEmpty() ? Double.NaN : priceAt(maxDeque.first()),
+                Math.min(count, capacity)
+        );
+    }
+
+    private void updateRsi(double change) {
+        double gain = Math.max(change, 0);
+        double loss = Math.max(-change, 0);
+        if (rsiSeeded < RSI_PERIOD) {
+            avgGain += gain / RSI_PERIOD;
+            avgLoss += loss / RSI_PERIOD;
+            rsiSeeded++;
+        } else {
+            avgGain = (avgGain * (RSI_PERIOD - 1) + gain) / RSI_PERIOD;
+            avgLoss = (avgLoss * (RSI_PERIOD - 1) + loss) / RSI_PERIOD;
+        }
+    }
+
+    private double rsi() {
+        if (rsiSeeded < RSI_PERIOD) {
+            return Double.NaN;
+        }
+        if (avgLoss == 0) {
+            return 100;
+        }
+        return 100 - 100 / (1 + avgGain / avgLoss);
+    }
+
+    private double sma(int index) {
+        int period = SMA_PERIODS[index];
+        return count >= period ? smaSums[index] / period : Double.NaN;
+    }
+
+    private void addReturn(double value) {
+        returnCount++;
+        double delta = value - returnMean;
+        returnMean += delta / returnCount;
+        returnM2 += delta * (value - returnMean);
+    }
+
+    private void removeReturn(double value) {
+        if (returnCount <= 1) {
+            returnCount = 0;
+            returnMean = 0;
+            returnM2 = 0;
+            return;
+        }
+        double meanBefore = returnMean;
+        returnCount--;
+        returnMean = (meanBefore * (returnCount + 1) - value) / returnCount;
+        returnM2 -= (value - meanBefore) * (value - returnMean);
+    }
+
+    private void recalibrate() {
+        long first = Math.max(0, count - capacity);
+        for (int i = 0; i < SMA_PERIODS.length; i++) {
+            double sum = 0;
+            for (long s = Math.max(first, count - SMA_PERIODS[i]); s < count; s++) {
+                sum += priceAt(s);
+            }
+            smaSums[i] = sum;
+        }
+        returnCount = 0;
+        returnMean = 0;
+        returnM2 = 0;
+        for (long s = first + 1; s < count; s++) {
+            addReturn(percentReturn(priceAt(s - 1), priceAt(s)));
+        }
+    }
+
+    private double priceAt(long sequence) {
+        return prices[(int) (sequence % capacity)];
+    }
+
+    private static double percentReturn(double from, double to) {
+        return (to - from) / from * 100;
+    }
+
+    /**
+     * Ring-backed deque of sample sequence numbers, used for the sliding-window min/max.
+     */
+    private static final class SequenceDeque {
+        private final long[] items;
+        private int head;
+        private int size;
+
+        SequenceDeque(int capacity) {
+            this.items = new long[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long first() {
+            return items[head];
+        }
+
+        long last() {
+            return items[(head + size - 1) % items.length];
+        }
+
+        void addLast(long sequence) {
+            items[(head + size) % items.length] = sequence;
+            size++;
+        }
+
+        void removeLast() {
+            size--;
+        }
+
+        void evictBefore(long sequence) {
+            while (size > 0 && items[head] < sequence) {
+                head = (head + 1) % items.length;
+                size--;
+            }
+        }
+    }
+}
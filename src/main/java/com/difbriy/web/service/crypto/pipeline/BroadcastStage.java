@@ -0,0 +1,33 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.BroadcastFramePublisher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class BroadcastStage implements SnapshotConsumer {
+
+    private final BroadcastFramePublisher framePublisher;
+
+    @Override
+    public String stageName() {
+        return "broadcast";
+    }
+
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.COALESCE;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        MarketSnapshot latest = snapshots.get(snapshots.size() - 1);
+        // Тик сериализуется один раз, один и тот же кадр уходит в оба топика (включая lifetime режим реального времени)
+        byte[] frame = framePublisher.serialize(latest.quotes());
+        framePublisher.send(frame, "/topic/crypto", "/topic/crypto/realtime");
+    }
+}
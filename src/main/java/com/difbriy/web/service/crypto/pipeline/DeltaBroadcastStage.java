@@ -0,0 +1,33 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.delta.QuoteDeltaStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class DeltaBroadcastStage implements SnapshotConsumer {
+
+    private final QuoteDeltaStream quoteDeltaStream;
+
+    @Override
+    public String stageName() {
+        return "delta";
+    }
+
+    /**
+     * Skipped ticks are harmless: the next delta is computed against the last tick actually sent.
+     */
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.COALESCE;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        quoteDeltaStream.publish(snapshots.get(snapshots.size() - 1));
+    }
+}
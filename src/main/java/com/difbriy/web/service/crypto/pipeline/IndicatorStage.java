@@ -0,0 +1,39 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.indicator.IndicatorEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class IndicatorStage implements SnapshotConsumer {
+
+    private final IndicatorEngine indicatorEngine;
+
+    @Value("${crypto.pipeline.indicators.capacity:64}")
+    private int capacity;
+
+    @Override
+    public String stageName() {
+        return "indicators";
+    }
+
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        snapshots.forEach(indicatorEngine::update);
+    }
+}
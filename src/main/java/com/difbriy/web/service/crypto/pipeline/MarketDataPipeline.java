@@ -0,0 +1,62 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans each fetched tick out to independent consumer stages (broadcast, cache, persistence).
+ * Publishing only enqueues, so a slow database never delays live prices.
+ */
+@Component
+@Slf4j
+public class MarketDataPipeline {
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<PipelineStage> stages;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile MarketSnapshot latest;
+
+    public MarketDataPipeline(List<SnapshotConsumer> consumers, MeterRegistry meterRegistry) {
+        this.stages = consumers.stream()
+                .map(consumer -> new PipelineStage(consumer, meterRegistry))
+                .toList();
+    }
+
+    @PostConstruct
+    void start() {
+        stages.forEach(PipelineStage::start);
+        log.info("Market data pipeline started with {} stages", stages.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        // Сначала сигнал всем стадиям, потом ожидание: они дописывают буферы параллельно
+        stages.forEach(PipelineStage::stop);
+        stages.forEach(stage -> stage.awaitTermination(SHUTDOWN_TIMEOUT));
+    }
+
+    public MarketSnapshot publish(List<CoinQuote> quotes) {
+        MarketSnapshot snapshot = new MarketSnapshot(sequence.incrementAndGet(), Instant.now(), List.copyOf(quotes));
+        latest = snapshot;
+        stages.forEach(stage -> stage.offer(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * The last published tick, {@code null} until the first fetch after startup.
+     */
+    public MarketSnapshot latest() {
+        return latest;
+    }
+}
@@ -0,0 +1,52 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.repository.CryptoOhlcvRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Folds every tick into the OHLCV rollups. Ticks are applied in order and none are coalesced,
+ * otherwise the high/low of a bucket could miss an extreme.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OhlcvRollupStage implements SnapshotConsumer {
+
+    private final CryptoOhlcvRepository cryptoOhlcvRepository;
+
+    @Value("${crypto.pipeline.rollup.capacity:64}")
+    private int capacity;
+
+    @Override
+    public String stageName() {
+        return "rollup";
+    }
+
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        int rows = 0;
+        for (MarketSnapshot snapshot : snapshots) {
+            LocalDateTime timestamp = LocalDateTime.ofInstant(snapshot.fetchedAt(), ZoneId.systemDefault());
+            rows += cryptoOhlcvRepository.upsert(snapshot.quotes(), timestamp);
+        }
+        log.debug("Folded {} tick(s) into {} OHLCV bucket rows", snapshots.size(), rows);
+    }
+}
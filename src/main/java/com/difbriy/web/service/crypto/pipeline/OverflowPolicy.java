@@ -0,0 +1,15 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+/**
+ * What a stage does when a new snapshot arrives and its buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Keep only the newest snapshot. For stages where an older tick is worthless once a newer one exists.
+     */
+    COALESCE,
+    /**
+     * Buffer up to the stage capacity, then drop the oldest pending snapshot.
+     */
+    DROP_OLDEST
+}
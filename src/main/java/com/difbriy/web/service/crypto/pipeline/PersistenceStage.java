@@ -0,0 +1,56 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.repository.CryptoDataBatchWriter;
+import com.difbriy.web.service.crypto.LatestQuoteSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PersistenceStage implements SnapshotConsumer {
+
+    private final CryptoDataBatchWriter cryptoDataBatchWriter;
+    private final LatestQuoteSnapshot latestQuoteSnapshot;
+
+    @Value("${crypto.pipeline.persistence.capacity:64}")
+    private int capacity;
+
+    @Override
+    public String stageName() {
+        return "persistence";
+    }
+
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        int saved = 0;
+        for (MarketSnapshot snapshot : snapshots) {
+            LocalDateTime timestamp = LocalDateTime.ofInstant(snapshot.fetchedAt(), ZoneId.systemDefault());
+            // Ошибка одного тика не должна терять остальные тики пачки
+            try {
+                saved += cryptoDataBatchWriter.write(snapshot.quotes(), timestamp);
+            } catch (Exception e) {
+                log.error("Error saving tick {} fetched at {}", snapshot.sequence(), timestamp, e);
+            }
+        }
+        log.info("Saved {} crypto data records to database from {} tick(s)", saved, snapshots.size());
+        latestQuoteSnapshot.refresh();
+    }
+}
@@ -0,0 +1,138 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded ring buffer plus a worker thread in front of one {@link SnapshotConsumer}.
+ */
+@Slf4j
+class PipelineStage {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+
+    private final SnapshotConsumer consumer;
+    private final ArrayBlockingQueue<MarketSnapshot> buffer;
+    private final Counter dropped;
+    private final Timer lag;
+    private final Timer duration;
+    private Thread worker;
+    private volatile boolean running;
+
+    PipelineStage(SnapshotConsumer consumer, MeterRegistry meterRegistry) {
+        this.consumer = consumer;
+        int capacity = consumer.overflowPolicy() == OverflowPolicy.COALESCE ? 1 : Math.max(1, consumer.capacity());
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+
+        String stage = consumer.stageName();
+        Gauge.builder("crypto.pipeline.stage.depth", buffer, ArrayBlockingQueue::size)
+                .tag("stage", stage)
+                .register(meterRegistry);
+        this.dropped = Counter.builder("crypto.pipeline.stage.dropped")
+                .tag("stage", stage)
+                .tag("policy", consumer.overflowPolicy().name().toLowerCase())
+                .register(meterRegistry);
+        this.lag = Timer.builder("crypto.pipeline.stage.lag")
+                .description("Time from fetch until the stage starts on a snapshot")
+                .tag("stage", stage)
+                .register(meterRegistry);
+        this.duration = Timer.builder("crypto.pipeline.stage.duration")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    void start() {
+        running = true;
+        worker = Thread.ofVirtual()
+                .name("crypto-pipeline-" + consumer.stageName())
+                .start(this::run);
+    }
+
+    /**
+     * Asks the worker to finish. It is not interrupted, so a write in progress completes, and snapshots
+     * still buffered are handed to the consumer once more before the worker exits.
+     */
+    void stop() {
+        running = false;
+    }
+
+    /**
+     * Waits for the worker after {@link #stop()}; one that is still busy after {@code timeout} is interrupted
+     * and whatever it had not consumed is reported as lost.
+     */
+    void awaitTermination(Duration timeout) {
+        if (worker == null) {
+            return;
+        }
+        try {
+            if (!worker.join(timeout)) {
+                log.warn("Pipeline stage {} did not finish in {}, dropping {} buffered snapshot(s)",
+                        consumer.stageName(), timeout, buffer.size());
+                worker.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Never blocks the publisher: when the buffer is full the oldest pending snapshot is discarded.
+     */
+    void offer(MarketSnapshot snapshot) {
+        while (!buffer.offer(snapshot)) {
+            if (buffer.poll() != null) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void run() {
+        List<MarketSnapshot> batch = new ArrayList<>();
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                // Ждём с таймаутом, а не take(): остановка не прерывает поток посреди записи
+                MarketSnapshot first = buffer.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch);
+                consume(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+
+        buffer.drainTo(batch);
+        if (!batch.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            log.info("Pipeline stage {} flushing {} buffered snapshot(s) on shutdown",
+                    consumer.stageName(), batch.size());
+            consume(batch);
+        }
+    }
+
+    private void consume(List<MarketSnapshot> batch) {
+        try {
+            lag.record(Duration.between(batch.get(0).fetchedAt(), Instant.now()));
+            long start = System.nanoTime();
+            consumer.consume(List.copyOf(batch));
+            duration.record(Duration.ofNanos(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("Pipeline stage {} failed on {} snapshot(s)", consumer.stageName(), batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.series.PriceSeriesStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class PriceSeriesStage implements SnapshotConsumer {
+
+    private final PriceSeriesStore priceSeriesStore;
+
+    @Value("${crypto.pipeline.series.capacity:64}")
+    private int capacity;
+
+    @Override
+    public String stageName() {
+        return "series";
+    }
+
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        snapshots.forEach(priceSeriesStore::append);
+    }
+}
@@ -0,0 +1,31 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.QuoteCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class QuoteCacheStage implements SnapshotConsumer {
+
+    private final QuoteCache quoteCache;
+
+    @Override
+    public String stageName() {
+        return "cache";
+    }
+
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.COALESCE;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        MarketSnapshot latest = snapshots.get(snapshots.size() - 1);
+        quoteCache.putAllCoins(latest.quotes(), latest.fetchedAt());
+    }
+}
@@ -0,0 +1,28 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+
+import java.util.List;
+
+/**
+ * A consumer stage of the ingestion pipeline. Each stage runs on its own thread with its own buffer,
+ * so a slow stage never holds back the others.
+ */
+public interface SnapshotConsumer {
+
+    String stageName();
+
+    OverflowPolicy overflowPolicy();
+
+    /**
+     * Buffer size for {@link OverflowPolicy#DROP_OLDEST}; coalescing stages always hold one snapshot.
+     */
+    default int capacity() {
+        return 1;
+    }
+
+    /**
+     * Receives pending snapshots in publish order, at most {@link #capacity()} at a time.
+     */
+    void consume(List<MarketSnapshot> snapshots) throws Exception;
+}
@@ -0,0 +1,60 @@
+package com.difbriy.web.service.crypto.pipeline;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.service.crypto.BroadcastFramePublisher;
+import com.difbriy.web.service.crypto.SymbolSubscriptionRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends each coin of the tick to {@code /topic/crypto/{symbol}}, but only for symbols that have subscribers.
+ */
+@Component
+@RequiredArgsConstructor
+public class SymbolBroadcastStage implements SnapshotConsumer {
+
+    private final SymbolSubscriptionRegistry subscriptionRegistry;
+    private final BroadcastFramePublisher framePublisher;
+
+    @Override
+    public String stageName() {
+        return "symbol-broadcast";
+    }
+
+    @Override
+    public OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.COALESCE;
+    }
+
+    @Override
+    public void consume(List<MarketSnapshot> snapshots) {
+        Set<String> destinations = subscriptionRegistry.subscribedDestinations();
+        if (destinations.isEmpty()) {
+            return;
+        }
+
+        List<CoinQuote> quotes = snapshots.get(snapshots.size() - 1).quotes();
+        Map<String, CoinQuote> bySymbol = new HashMap<>(quotes.size() * 2);
+        for (CoinQuote quote : quotes) {
+            if (quote.symbol() != null) {
+                bySymbol.putIfAbsent(quote.symbol().toUpperCase(), quote);
+            }
+        }
+
+        // Один кадр на символ, даже если на него подписаны в разном регистре
+        Map<String, byte[]> frames = new HashMap<>();
+        for (String destination : destinations) {
+            String symbol = SymbolSubscriptionRegistry.symbolOf(destination);
+            CoinQuote quote = bySymbol.get(symbol);
+            if (quote != null) {
+                framePublisher.send(frames.computeIfAbsent(symbol, s -> framePublisher.serialize(quote)), destination);
+            }
+        }
+    }
+}
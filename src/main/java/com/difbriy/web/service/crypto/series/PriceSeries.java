@@ -0,0 +1,150 @@
+package com.difbriy.web.service.crypto.series;
+
+import com.difbriy.web.dto.crypto.PriceStats;
+
+/**
+ * Fixed-size ring of samples for one symbol stored as parallel primitive columns.
+ * Timestamps are strictly increasing, so ranges are found with a binary search.
+ * Not thread-safe, {@link PriceSeriesStore} guards access.
+ */
+final class PriceSeries {
+
+    private final long[] timestamps;
+    private final double[] prices;
+    private final double[] volumes;
+    private final double[] marketCaps;
+    private int head;
+    private int size;
+
+    PriceSeries(int capacity) {
+        this.timestamps = new long[capacity];
+        this.prices = new double[capacity];
+        this.volumes = new double[capacity];
+        this.marketCaps = new double[capacity];
+    }
+
+    /**
+     * Appends a sample, overwriting the oldest one when full. Out-of-order samples are ignored.
+     */
+    boolean append(long timestamp, double price, double volume, double marketCap) {
+        if (size > 0 && timestamp <= lastTimestamp()) {
+            return false;
+        }
+        timestamps[head] = timestamp;
+        prices[head] = price;
+        volumes[head] = volume;
+        marketCaps[head] = marketCap;
+        head = head + 1 == timestamps.length ? 0 : head + 1;
+        if (size < timestamps.length) {
+            size++;
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long lastTimestamp() {
+        return timestamps[physical(size - 1)];
+    }
+
+    /**
+     * Copies samples with {@code from <= timestamp < to}.
+     */
+    SeriesSlice slice(long from, long to) {
+        int lo = lowerBound(from);
+        int hi = lowerBound(to);
+        int count = hi - lo;
+        if (count <= 0) {
+            return SeriesSlice.EMPTY;
+        }
+        SeriesSlice slice = new SeriesSlice(new long[count], new double[count], new double[count], new double[count]);
+        int start = physical(lo);
+        int firstPart = Math.min(count, timestamps.length - start);
+        copy(start, slice, 0, firstPart);
+        if (firstPart < count) {
+            copy(0, slice, firstPart, count - firstPart);
+        }
+        return slice;
+    }
+
+    /**
+     * Min, max, average, first and last price of samples with {@code timestamp >= from}, in one pass
+     * over the ring without copying it.
+     */
+    PriceStats stats(long from) {
+        int lo = lowerBound(from);
+        int samples = size - lo;
+        if (samples <= 0) {
+            return PriceStats.EMPTY;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        double first = Double.NaN;
+        double last = Double.NaN;
+        int priced = 0;
+        int p = physical(lo);
+        for (int i = 0; i < samples; i++) {
+            double price = prices[p];
+            if (!Double.isNaN(price)) {
+                if (priced++ == 0) {
+                    first = price;
+                }
+                last = price;
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+                sum += price;
+            }
+            if (++p == prices.length) {
+                p = 0;
+            }
+        }
+        return priced == 0
+                ? new PriceStats(samples, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN)
+                : new PriceStats(samples, min, max, sum / priced, first, last);
+    }
+
+    /**
+     * Moves every sample of {@code newer} that is later than this series' last sample into this series.
+     */
+    void appendNewer(PriceSeries newer) {
+        for (int i = 0; i < newer.size; i++) {
+            int p = newer.physical(i);
+            append(newer.timestamps[p], newer.prices[p], newer.volumes[p], newer.marketCaps[p]);
+        }
+    }
+
+    /**
+     * First logical index whose timestamp is {@code >= target}, {@code size} if none.
+     */
+    private int lowerBound(long target) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[physical(mid)] < target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int physical(int logical) {
+        int index = head - size + logical;
+        if (index < 0) {
+            index += timestamps.length;
+        }
+        return index >= timestamps.length ? index - timestamps.length : index;
+    }
+
+    private void copy(int from, SeriesSlice slice, int to, int length) {
+        System.arraycopy(timestamps, from, slice.timestamps(), to, length);
+        System.arraycopy(prices, from, slice.prices(), to, length);
+        System.arraycopy(volumes, from, slice.volumes(), to, length);
+        System.arraycopy(marketCaps, from, slice.marketCaps(), to, length);
+    }
+}
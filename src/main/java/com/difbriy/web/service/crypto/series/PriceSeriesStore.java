@@ -0,0 +1,198 @@
+package com.difbriy.web.service.crypto.series;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.difbriy.web.dto.crypto.MarketSnapshot;
+import com.difbriy.web.dto.crypto.PriceStats;
+import com.difbriy.web.repository.CryptoSeriesRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Recent price history of every symbol kept in memory as primitive columns
+ * ({@code long[]} timestamps, {@code double[]} price/volume/market cap). Fed by the ingestion pipeline
+ * and warmed from {@code crypto_data} at startup, it answers range reads inside the configured window
+ * without going to Postgres, which stays the system of record.
+ */
+@Component
+@Slf4j
+public class PriceSeriesStore {
+
+    private static final long COVERAGE_SLACK_MILLIS = 60_000;
+
+    private final CryptoSeriesRepository cryptoSeriesRepository;
+    private final Duration window;
+    private final int capacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, PriceSeries> series = new HashMap<>();
+    // Растёт при каждом изменении содержимого, по нему вызывающие кэшируют производные значения
+    private final AtomicLong version = new AtomicLong();
+
+    // Момент, начиная с которого в памяти полная история; до прогрева стор не используется для чтения
+    private volatile long completeSinceMillis = Long.MAX_VALUE;
+
+    public PriceSeriesStore(CryptoSeriesRepository cryptoSeriesRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${crypto.series.window:7d}") Duration window,
+                            @Value("${crypto.series.tick-interval:30s}") Duration tickInterval) {
+        this.cryptoSeriesRepository = cryptoSeriesRepository;
+        this.window = window;
+        // 10% запаса на тики чаще номинального интервала (ручные обновления, перезапуски)
+        this.capacity = (int) (window.toMillis() / tickInterval.toMillis() * 11 / 10) + 1;
+        Gauge.builder("crypto.series.symbols", this, PriceSeriesStore::symbolCount)
+                .description("Symbols held in the in-memory price series store")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void warmUp() {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime from = LocalDateTime.now().minus(window);
+        Map<String, PriceSeries> warmed = new HashMap<>();
+        long[] rows = new long[1];
+        try {
+            cryptoSeriesRepository.streamSeriesSince(from, rs -> {
+                PriceSeries target = warmed.computeIfAbsent(rs.getString("symbol"), s -> new PriceSeries(capacity));
+                target.append(rs.getTimestamp("timestamp").getTime(),
+                        column(rs.getBigDecimal("price")),
+                        column(rs.getBigDecimal("volume_24h")),
+                        column(rs.getBigDecimal("market_cap")));
+                rows[0]++;
+            });
+        } catch (Exception e) {
+            log.error("Error warming up price series store, history reads stay on the database", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Тики, пришедшие во время прогрева, дописываются поверх загруженной истории
+            series.forEach((symbol, live) ->
+                    warmed.computeIfAbsent(symbol, s -> new PriceSeries(capacity)).appendNewer(live));
+            series = warmed;
+            completeSinceMillis = toMillis(from);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Price series store warmed with {} rows for {} symbols in {} ms",
+                rows[0], warmed.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    public void append(MarketSnapshot snapshot) {
+        long timestamp = snapshot.fetchedAt().toEpochMilli();
+        lock.writeLock().lock();
+        try {
+            for (CoinQuote quote : snapshot.quotes()) {
+                if (quote.symbol() == null) {
+                    continue;
+                }
+                series.computeIfAbsent(quote.symbol(), s -> new PriceSeries(capacity))
+                        .append(timestamp, quote.price(), quote.volume24h(), quote.marketCap());
+            }
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether every sample since {@code from} is held in memory.
+     */
+    public boolean covers(LocalDateTime from) {
+        long fromMillis = toMillis(from);
+        // Запас в минуту: вызывающий код считает "now - 7d" чуть раньше, чем здесь, а ring держит окно с запасом
+        return fromMillis >= completeSinceMillis - COVERAGE_SLACK_MILLIS
+                && fromMillis >= System.currentTimeMillis() - window.toMillis() - COVERAGE_SLACK_MILLIS;
+    }
+
+    /**
+     * Samples of the symbol since {@code from}, or {@code null} when the range is not covered and the
+     * caller has to read the database.
+     */
+    public SeriesSlice slice(String symbol, LocalDateTime from) {
+        if (!covers(from)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            PriceSeries target = series.get(symbol);
+            return target == null ? SeriesSlice.EMPTY : target.slice(toMillis(from), Long.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Price aggregate of the symbol since {@code from}, computed in place under the read lock,
+     * or {@code null} when the range is not covered.
+     */
+    public PriceStats stats(String symbol, LocalDateTime from) {
+        if (!covers(from)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            PriceSeries target = series.get(symbol);
+            return target == null ? PriceStats.EMPTY : target.stats(toMillis(from));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Changes once per appended tick (and on warm-up), so anything derived from the store stays valid
+     * while the version is unchanged.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public Set<String> symbols() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(series.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private int symbolCount() {
+        lock.readLock().lock();
+        try {
+            return series.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static double column(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
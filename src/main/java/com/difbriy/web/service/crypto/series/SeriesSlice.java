@@ -0,0 +1,18 @@
+package com.difbriy.web.service.crypto.series;
+
+/**
+ * A copied range of one symbol's series, column by column. Timestamps are epoch millis,
+ * a missing value is {@link Double#NaN}.
+ */
+public record SeriesSlice(long[] timestamps, double[] prices, double[] volumes, double[] marketCaps) {
+
+    static final SeriesSlice EMPTY = new SeriesSlice(new long[0], new double[0], new double[0], new double[0]);
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public boolean isEmpty() {
+        return timestamps.length == 0;
+    }
+}
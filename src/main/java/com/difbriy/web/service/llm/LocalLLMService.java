@@ -1,12 +1,15 @@
 package com.difbriy.web.service.llm;
 
+import com.difbriy.web.config.MarketDataHttpClients;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -15,6 +18,8 @@ import java.util.Map;
 @Slf4j
 public class LocalLLMService {
     
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    
     @Value("${local.llm.base-url}")
     private String baseUrl;
     
@@ -30,11 +35,11 @@ public class LocalLLMService {
     @Value("${local.llm.enabled}")
     private boolean enabled;
     
-    private final RestTemplate restTemplate;
+    private final MarketDataHttpClients httpClients;
     private final ObjectMapper objectMapper;
     
-    public LocalLLMService() {
-        this.restTemplate = new RestTemplate();
+    public LocalLLMService(MarketDataHttpClients httpClients) {
+        this.httpClients = httpClients;
         this.objectMapper = new ObjectMapper();
     }
     
@@ -54,20 +59,19 @@ public class LocalLLMService {
                 "num_predict", maxTokens
             ));
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+            Request request = new Request.Builder()
+                .url(baseUrl + "/api/generate")
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(requestBody), JSON))
+                .build();
             
-            String url = baseUrl + "/api/generate";
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-                return jsonResponse.get("response").asText();
-            } else {
-                log.error("LLM API returned status: {}", response.getStatusCode());
-                return "Error generating analysis: " + response.getStatusCode();
+            try (Response response = httpClients.getLocalLlm().newCall(request).execute()) {
+                if (response.isSuccessful()) {
+                    JsonNode jsonResponse = objectMapper.readTree(response.body().byteStream());
+                    return jsonResponse.get("response").asText();
+                } else {
+                    log.error("LLM API returned status: {}", response.code());
+                    return "Error generating analysis: " + response.code();
+                }
             }
             
         } catch (Exception e) {
@@ -128,9 +132,10 @@ public class LocalLLMService {
     
     public boolean isHealthy() {
         try {
-            String url = baseUrl + "/api/tags";
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            return response.getStatusCode() == HttpStatus.OK;
+            Request request = new Request.Builder().url(baseUrl + "/api/tags").build();
+            try (Response response = httpClients.getLocalLlm().newCall(request).execute()) {
+                return response.isSuccessful();
+            }
         } catch (Exception e) {
             log.error("LLM health check failed: {}", e.getMessage());
             return false;
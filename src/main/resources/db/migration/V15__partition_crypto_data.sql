@@ -0,0 +1,59 @@
+-- V15: Партиционирование crypto_data по дням
+-- Снимки пишутся каждые 30 секунд, ретеншн 180 дней: вместо построчного DELETE
+-- старые данные удаляются DROP целой партиции (CryptoDataPartitionService).
+
+ALTER TABLE crypto_data RENAME TO crypto_data_legacy;
+ALTER INDEX IF EXISTS idx_symbol_timestamp RENAME TO idx_legacy_symbol_timestamp;
+ALTER INDEX IF EXISTS idx_timestamp RENAME TO idx_legacy_timestamp;
+ALTER INDEX IF EXISTS idx_symbol RENAME TO idx_legacy_symbol;
+
+-- Ключ партиционирования обязан входить в первичный ключ
+CREATE TABLE crypto_data (
+    id BIGINT NOT NULL DEFAULT nextval('crypto_data_id_seq'),
+    symbol VARCHAR(20) NOT NULL,
+    name VARCHAR(255),
+    price DECIMAL(20,8),
+    market_cap DECIMAL(30,8),
+    volume_24h DECIMAL(30,8),
+    circulating_supply DECIMAL(30,8),
+    total_supply DECIMAL(30,8),
+    max_supply DECIMAL(30,8),
+    percent_change_1h DECIMAL(10,4),
+    percent_change_24h DECIMAL(10,4),
+    percent_change_7d DECIMAL(10,4),
+    rank INT,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE crypto_data_id_seq OWNED BY crypto_data.id;
+
+-- Дневные партиции от самых старых данных до недели вперёд
+DO $$
+DECLARE
+    day DATE;
+    last_day DATE := CURRENT_DATE + 7;
+BEGIN
+    SELECT COALESCE(MIN(timestamp)::date, CURRENT_DATE) INTO day FROM crypto_data_legacy;
+    WHILE day <= last_day LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF crypto_data FOR VALUES FROM (%L) TO (%L)',
+            'crypto_data_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+        day := day + 1;
+    END LOOP;
+END $$;
+
+INSERT INTO crypto_data (id, symbol, name, price, market_cap, volume_24h, circulating_supply,
+                         total_supply, max_supply, percent_change_1h, percent_change_24h,
+                         percent_change_7d, rank, timestamp)
+SELECT id, symbol, name, price, market_cap, volume_24h, circulating_supply,
+       total_supply, max_supply, percent_change_1h, percent_change_24h,
+       percent_change_7d, rank, timestamp
+FROM crypto_data_legacy;
+
+DROP TABLE crypto_data_legacy;
+
+-- Индексы на родительской таблице наследуются всеми партициями.
+-- Отдельный индекс по symbol не нужен: его покрывает (symbol, timestamp).
+CREATE INDEX idx_symbol_timestamp ON crypto_data(symbol, timestamp);
+CREATE INDEX idx_timestamp ON crypto_data(timestamp);
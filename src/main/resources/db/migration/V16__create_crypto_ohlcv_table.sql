@@ -0,0 +1,48 @@
+-- V16: OHLCV-агрегаты для графиков (1m / 5m / 1h / 1d)
+-- Обновляются инкрементально на каждом тике (CryptoOhlcvRepository.upsert),
+-- графики читают отсюда вместо сырых 30-секундных снимков crypto_data.
+
+CREATE TABLE crypto_ohlcv (
+    symbol VARCHAR(20) NOT NULL,
+    resolution VARCHAR(3) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    open DECIMAL(20,8),
+    high DECIMAL(20,8),
+    low DECIMAL(20,8),
+    close DECIMAL(20,8),
+    volume_24h DECIMAL(30,8),
+    market_cap DECIMAL(30,8),
+    samples INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (symbol, resolution, bucket_start),
+    CONSTRAINT chk_ohlcv_resolution CHECK (resolution IN ('1m', '5m', '1h', '1d'))
+);
+
+COMMENT ON COLUMN crypto_ohlcv.volume_24h IS 'Объем торгов за 24ч на закрытии бакета';
+COMMENT ON COLUMN crypto_ohlcv.market_cap IS 'Рыночная капитализация на закрытии бакета';
+
+-- Заполняем агрегаты по уже накопленной истории
+INSERT INTO crypto_ohlcv (symbol, resolution, bucket_start, open, high, low, close, volume_24h, market_cap, samples)
+SELECT symbol, resolution, bucket_start,
+       (array_agg(price ORDER BY timestamp))[1],
+       MAX(price),
+       MIN(price),
+       (array_agg(price ORDER BY timestamp DESC))[1],
+       (array_agg(volume_24h ORDER BY timestamp DESC))[1],
+       (array_agg(market_cap ORDER BY timestamp DESC))[1],
+       COUNT(*)
+FROM (
+    SELECT d.symbol, d.price, d.volume_24h, d.market_cap, d.timestamp, r.resolution,
+           CASE r.resolution
+               WHEN '1m' THEN date_trunc('minute', d.timestamp)
+               WHEN '5m' THEN date_trunc('hour', d.timestamp)
+                              + floor(extract(minute FROM d.timestamp) / 5) * INTERVAL '5 minutes'
+               WHEN '1h' THEN date_trunc('hour', d.timestamp)
+               ELSE date_trunc('day', d.timestamp)
+           END AS bucket_start
+    FROM crypto_data d
+    CROSS JOIN (VALUES ('1m'), ('5m'), ('1h'), ('1d')) AS r(resolution)
+    WHERE d.price IS NOT NULL
+      AND (r.resolution <> '1m' OR d.timestamp >= CURRENT_TIMESTAMP - INTERVAL '2 days')
+      AND (r.resolution <> '5m' OR d.timestamp >= CURRENT_TIMESTAMP - INTERVAL '30 days')
+) buckets
+GROUP BY symbol, resolution, bucket_start;
@@ -0,0 +1,32 @@
+-- V17: Последний снимок по каждому символу
+-- Обновляется CryptoDataBatchWriter в той же транзакции, что и вставка в crypto_data,
+-- чтобы /api/crypto/chart/latest не сканировал всю историю коррелированным MAX(timestamp).
+
+CREATE TABLE crypto_latest (
+    symbol VARCHAR(20) PRIMARY KEY,
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    price DECIMAL(20,8),
+    market_cap DECIMAL(30,8),
+    volume_24h DECIMAL(30,8),
+    circulating_supply DECIMAL(30,8),
+    total_supply DECIMAL(30,8),
+    max_supply DECIMAL(30,8),
+    percent_change_1h DECIMAL(10,4),
+    percent_change_24h DECIMAL(10,4),
+    percent_change_7d DECIMAL(10,4),
+    rank INT,
+    timestamp TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_crypto_latest_rank ON crypto_latest(rank);
+
+INSERT INTO crypto_latest (symbol, id, name, price, market_cap, volume_24h, circulating_supply,
+                           total_supply, max_supply, percent_change_1h, percent_change_24h,
+                           percent_change_7d, rank, timestamp)
+SELECT DISTINCT ON (symbol)
+       symbol, id, name, price, market_cap, volume_24h, circulating_supply,
+       total_supply, max_supply, percent_change_1h, percent_change_24h,
+       percent_change_7d, rank, timestamp
+FROM crypto_data
+ORDER BY symbol, timestamp DESC, rank ASC NULLS LAST;
@@ -0,0 +1,113 @@
+package com.difbriy.web.serializer;
+
+import com.difbriy.web.dto.crypto.CryptoChartData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChartSeriesCodecTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Test
+    void decode_shouldRestoreEncodedSeries() throws Exception {
+        CryptoChartData chart = chart(series(5_000, true));
+
+        CryptoChartData decoded = ChartSeriesCodec.decode(ChartSeriesCodec.encode(chart));
+
+        assertThat(decoded.getSymbol()).isEqualTo("BTC");
+        assertThat(decoded.getName()).isEqualTo("Bitcoin");
+        assertThat(decoded.getCurrentPrice()).isEqualByComparingTo(chart.getCurrentPrice());
+        assertThat(decoded.getPriceChange24h()).isNull();
+        assertThat(decoded.getLastUpdated()).isEqualTo(chart.getLastUpdated());
+        assertThat(decoded.getData()).hasSize(chart.getData().size());
+        for (int i = 0; i < chart.getData().size(); i++) {
+            CryptoChartData.ChartPoint expected = chart.getData().get(i);
+            CryptoChartData.ChartPoint actual = decoded.getData().get(i);
+            assertThat(actual.getTimestamp()).isEqualTo(expected.getTimestamp());
+            assertSameValue(actual.getPrice(), expected.getPrice());
+            assertSameValue(actual.getVolume(), expected.getVolume());
+            assertSameValue(actual.getMarketCap(), expected.getMarketCap());
+            assertSameValue(actual.getOpen(), expected.getOpen());
+            assertSameValue(actual.getHigh(), expected.getHigh());
+            assertSameValue(actual.getLow(), expected.getLow());
+        }
+    }
+
+    @Test
+    void encode_shouldBeSmallForRegularTicks() throws Exception {
+        List<CryptoChartData.ChartPoint> points = series(10_000, false);
+
+        byte[] payload = ChartSeriesCodec.encode(chart(points));
+
+        // Четыре BigDecimal и строка даты в JSON — больше 100 байт на точку
+        assertThat(payload.length).isLessThan(points.size() * 16);
+    }
+
+    @Test
+    void decode_shouldHandleEmptySeriesAndRejectUnknownVersion() throws Exception {
+        CryptoChartData empty = new CryptoChartData();
+        empty.setSymbol("ETH");
+        empty.setData(List.of());
+
+        byte[] payload = ChartSeriesCodec.encode(empty);
+        assertThat(ChartSeriesCodec.decode(payload).getData()).isEmpty();
+
+        payload[0] = 99;
+        assertThatThrownBy(() -> ChartSeriesCodec.decode(payload)).hasMessageContaining("version");
+    }
+
+    private static CryptoChartData chart(List<CryptoChartData.ChartPoint> points) {
+        CryptoChartData chart = new CryptoChartData();
+        chart.setSymbol("BTC");
+        chart.setName("Bitcoin");
+        chart.setData(points);
+        chart.setCurrentPrice(points.get(points.size() - 1).getPrice());
+        chart.setLastUpdated(points.get(points.size() - 1).getTimestamp());
+        return chart;
+    }
+
+    private static List<CryptoChartData.ChartPoint> series(int size, boolean noisy) {
+        Random random = new Random(42L);
+        List<CryptoChartData.ChartPoint> points = new ArrayList<>(size);
+        double price = 43_000;
+        long offsetMillis = 0;
+        for (int i = 0; i < size; i++) {
+            offsetMillis += 30_000 + (noisy ? random.nextInt(400) - 200 : 0);
+            if (noisy && i == size / 2) {
+                offsetMillis += 3 * 86_400_000L;
+            }
+            if (i % 10 == 0) {
+                price *= 1 + random.nextGaussian() * 0.001;
+            }
+            CryptoChartData.ChartPoint point = new CryptoChartData.ChartPoint(
+                    START.plusNanos(offsetMillis * 1_000_000),
+                    BigDecimal.valueOf(price).setScale(8, RoundingMode.HALF_UP),
+                    noisy && i % 7 == 0 ? null : BigDecimal.valueOf(15_000_000_000L + i / 10),
+                    BigDecimal.valueOf(840_000_000_000L));
+            if (noisy && i % 3 == 0) {
+                point.setOpen(point.getPrice());
+                point.setHigh(point.getPrice().add(BigDecimal.ONE));
+                point.setLow(point.getPrice().subtract(BigDecimal.ONE));
+            }
+            points.add(point);
+        }
+        return points;
+    }
+
+    private static void assertSameValue(BigDecimal actual, BigDecimal expected) {
+        if (expected == null) {
+            assertThat(actual).isNull();
+        } else {
+            assertThat(actual).isEqualByComparingTo(expected);
+        }
+    }
+}
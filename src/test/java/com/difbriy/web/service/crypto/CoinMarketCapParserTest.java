@@ -0,0 +1,91 @@
+package com.difbriy.web.service.crypto;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoinMarketCapParserTest {
+
+    private static final String LISTINGS = """
+            {
+              "status": {"timestamp": "2024-03-01T10:00:00.000Z", "error_code": 0, "notice": null},
+              "data": [
+                {
+                  "id": 1, "name": "Bitcoin", "symbol": "BTC", "slug": "bitcoin", "cmc_rank": 1,
+                  "tags": ["mineable", "pow"], "platform": null,
+                  "circulating_supply": 19640000, "total_supply": 19640000, "max_supply": 21000000,
+                  "quote": {
+                    "EUR": {"price": 56000.1},
+                    "USD": {
+                      "price": 61234.56, "volume_24h": 35000000000.5, "volume_change_24h": -3.2,
+                      "percent_change_1h": 0.12, "percent_change_24h": 1.5, "percent_change_7d": 4.4,
+                      "percent_change_30d": 20.1, "percent_change_60d": 40.2, "percent_change_90d": 60.3,
+                      "market_cap": 1200000000000, "market_cap_dominance": 52.1,
+                      "fully_diluted_market_cap": 1290000000000, "tvl": null,
+                      "last_updated": "2024-03-01T09:59:00.000Z"
+                    }
+                  }
+                },
+                {
+                  "id": 1027, "name": "Ethereum", "symbol": "ETH", "slug": "ethereum", "cmc_rank": 2,
+                  "circulating_supply": 120000000, "total_supply": 120000000, "max_supply": null,
+                  "quote": {"USD": {"price": 3400.5, "percent_change_24h": null}}
+                }
+              ]
+            }
+            """;
+
+    private final CoinMarketCapParser parser = new CoinMarketCapParser(new ObjectMapper());
+
+    @Test
+    void parseListings_shouldReadUsdQuoteAndSkipUnusedFields() throws IOException {
+        List<CoinQuote> quotes = parser.parseListings(stream(LISTINGS));
+
+        assertThat(quotes).hasSize(2);
+
+        CoinQuote btc = quotes.get(0);
+        assertThat(btc.id()).isEqualTo(1L);
+        assertThat(btc.symbol()).isEqualTo("BTC");
+        assertThat(btc.rank()).isEqualTo(1);
+        assertThat(btc.maxSupply()).isEqualTo(21000000d);
+        assertThat(btc.price()).isEqualTo(61234.56);
+        assertThat(btc.marketCap()).isEqualTo(1200000000000d);
+        assertThat(btc.percentChange90d()).isEqualTo(60.3);
+        assertThat(btc.lastUpdated()).isEqualTo("2024-03-01T09:59:00.000Z");
+
+        CoinQuote eth = quotes.get(1);
+        assertThat(eth.symbol()).isEqualTo("ETH");
+        assertThat(eth.price()).isEqualTo(3400.5);
+        assertThat(CoinQuote.isPresent(eth.maxSupply())).isFalse();
+        assertThat(CoinQuote.isPresent(eth.percentChange24h())).isFalse();
+        assertThat(CoinQuote.isPresent(eth.volume24h())).isFalse();
+    }
+
+    @Test
+    void parseListings_shouldReturnEmptyListWhenDataIsMissing() throws IOException {
+        List<CoinQuote> quotes = parser.parseListings(stream("{\"status\": {\"error_code\": 1002}}"));
+
+        assertThat(quotes).isEmpty();
+    }
+
+    @Test
+    void parseSingle_shouldReadCoinObject() throws IOException {
+        CoinQuote quote = parser.parseSingle(stream(
+                "{\"data\": {\"id\": 5426, \"symbol\": \"SOL\", \"quote\": {\"USD\": {\"price\": 140.25}}}}"));
+
+        assertThat(quote).isNotNull();
+        assertThat(quote.id()).isEqualTo(5426L);
+        assertThat(quote.price()).isEqualTo(140.25);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,204 @@
+package com.difbriy.web.service.crypto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void load_shouldRunOneLoaderForConcurrentCallersOfTheSameKey() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        AtomicInteger calls = new AtomicInteger();
+
+        List<Future<String>> results = runConcurrently(() -> singleFlight.load("all_coins", () -> {
+            calls.incrementAndGet();
+            awaitJoined(CALLERS - 1);
+            return "quotes";
+        }));
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("quotes");
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void load_shouldShareFailureWithEveryWaiterAndAllowRetry() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        AtomicInteger calls = new AtomicInteger();
+        IOException failure = new IOException("upstream down");
+
+        List<Future<String>> results = runConcurrently(() -> singleFlight.load("coin:1", () -> {
+            calls.incrementAndGet();
+            awaitJoined(CALLERS - 1);
+            throw failure;
+        }));
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(calls).hasValue(1);
+
+        // Неудачная загрузка не остаётся в полёте, следующий вызов идёт в upstream заново
+        assertThat(singleFlight.load("coin:1", () -> "btc")).isEqualTo("btc");
+    }
+
+    @Test
+    void load_shouldReleaseWaitersWhenLoaderThrowsError() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        Error error = new StackOverflowError("loader blew up");
+
+        List<Future<String>> results = runConcurrently(() -> singleFlight.load("coin:2", () -> {
+            awaitJoined(CALLERS - 1);
+            throw error;
+        }));
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(error);
+        }
+        assertThat(singleFlight.load("coin:2", () -> "eth")).isEqualTo("eth");
+    }
+
+    @Test
+    void loadClusterWide_shouldLoadUnderLockAndReleaseIt() throws IOException {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lock:all_coins"), anyString(), eq(Duration.ofSeconds(10))))
+                .thenReturn(true);
+
+        String value = singleFlight.loadClusterWide("all_coins", () -> null, () -> "fresh");
+
+        assertThat(value).isEqualTo("fresh");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("lock:all_coins")), anyString());
+    }
+
+    @Test
+    void loadClusterWide_shouldWaitForValueFilledByLockHolder() throws IOException {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lock:all_coins"), anyString(), any(Duration.class)))
+                .thenReturn(false);
+        AtomicInteger polls = new AtomicInteger();
+        AtomicInteger loads = new AtomicInteger();
+
+        String value = singleFlight.loadClusterWide("all_coins",
+                () -> polls.incrementAndGet() < 3 ? null : "filled elsewhere",
+                () -> "loaded here " + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("filled elsewhere");
+        assertThat(loads).hasValue(0);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), any(), any());
+    }
+
+    @Test
+    void loadClusterWide_shouldLoadWithoutLockWhenHolderNeverFills() throws IOException {
+        SingleFlight singleFlight = singleFlight(Duration.ofMillis(50));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lock:all_coins"), anyString(), any(Duration.class)))
+                .thenReturn(false);
+
+        String value = singleFlight.loadClusterWide("all_coins", () -> null, () -> "loaded after timeout");
+
+        assertThat(value).isEqualTo("loaded after timeout");
+        verify(redisTemplate, never()).execute(any(RedisScript.class), any(), any());
+    }
+
+    @Test
+    void loadClusterWide_shouldFallBackToLocalLoadWhenRedisIsDown() throws IOException {
+        SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lock:all_coins"), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+        when(redisTemplate.execute(any(RedisScript.class), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        String value = singleFlight.loadClusterWide("all_coins", () -> null, () -> "loaded locally");
+
+        assertThat(value).isEqualTo("loaded locally");
+    }
+
+    private SingleFlight singleFlight(Duration lockTtl) {
+        return new SingleFlight(redisTemplate, meterRegistry, lockTtl, Duration.ofMillis(5));
+    }
+
+    /**
+     * Starts {@link #CALLERS} calls at once; every call has passed the start latch before any of them runs.
+     */
+    private static <T> List<Future<T>> runConcurrently(Callable<T> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(CALLERS);
+        List<Future<T>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.countDown();
+                    start.await();
+                    return call.call();
+                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        return results;
+    }
+
+    /**
+     * Holds the loader until {@code waiters} callers have joined its flight, so the test does not depend
+     * on how threads get scheduled.
+     */
+    private void awaitJoined(int waiters) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("crypto.cache.singleflight.coalesced").count() < waiters) {
+            if (System.nanoTime() > deadline) {
+                fail("Only %s of %s callers joined the flight",
+                        meterRegistry.counter("crypto.cache.singleflight.coalesced").count(), waiters);
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
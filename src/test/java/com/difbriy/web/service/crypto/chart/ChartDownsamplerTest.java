@@ -0,0 +1,59 @@
+package com.difbriy.web.service.crypto.chart;
+
+import com.difbriy.web.dto.crypto.CryptoChartData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChartDownsamplerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void lttb_shouldKeepEndpointsAndLimitSize() {
+        List<CryptoChartData.ChartPoint> points = series(5_000, 17);
+
+        List<CryptoChartData.ChartPoint> sampled = ChartDownsampler.lttb(points, 300);
+
+        assertThat(sampled).hasSize(300);
+        assertThat(sampled.get(0)).isSameAs(points.get(0));
+        assertThat(sampled.get(sampled.size() - 1)).isSameAs(points.get(points.size() - 1));
+        for (int i = 1; i < sampled.size(); i++) {
+            assertThat(sampled.get(i).getTimestamp()).isAfter(sampled.get(i - 1).getTimestamp());
+        }
+    }
+
+    @Test
+    void lttb_shouldPreserveIsolatedSpike() {
+        List<CryptoChartData.ChartPoint> points = series(2_000, -1);
+        CryptoChartData.ChartPoint spike = points.get(1_234);
+        spike.setPrice(BigDecimal.valueOf(1_000_000));
+
+        List<CryptoChartData.ChartPoint> sampled = ChartDownsampler.lttb(points, 100);
+
+        assertThat(sampled).contains(spike);
+    }
+
+    @Test
+    void lttb_shouldReturnInputWhenItFits() {
+        List<CryptoChartData.ChartPoint> points = series(120, 3);
+
+        assertThat(ChartDownsampler.lttb(points, 500)).isSameAs(points);
+        assertThat(ChartDownsampler.lttb(points, 2)).isSameAs(points);
+    }
+
+    private static List<CryptoChartData.ChartPoint> series(int size, int period) {
+        List<CryptoChartData.ChartPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double price = period > 0 ? 100 + 10 * Math.sin(2 * Math.PI * i / period) : 100;
+            points.add(new CryptoChartData.ChartPoint(
+                    START.plusSeconds(30L * i), BigDecimal.valueOf(price), BigDecimal.ONE, BigDecimal.TEN));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,75 @@
+package com.difbriy.web.service.crypto.delta;
+
+import com.difbriy.web.dto.crypto.CoinQuote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteFieldsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void diff_shouldCoverEveryFieldOfTheFullSerialisation() {
+        CoinQuote previous = quote(1, "Bitcoin", 43_000.5, 1.2, "2024-03-01T12:00:00.000Z");
+        CoinQuote current = new CoinQuote(1, "Bitcoin Core", "XBT", "bitcoin-core", 2,
+                19_600_001, 19_600_002, 21_000_001, 43_100.25, 15_000_000_001.0, 3.5,
+                -0.4, 2.1, 5.5, 10.5, 20.5, 30.5, 845_000_000_000.0, 52.5, 905_000_000_000.0,
+                "2024-03-01T12:00:30.000Z");
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        assertThat(QuoteFields.diff(previous, current, delta)).isTrue();
+
+        // Поменялось всё, кроме id: дельта обязана содержать каждое поле, которое пишет CoinQuoteJsonSerializer
+        List<String> serialised = new ArrayList<>();
+        full(current).fieldNames().forEachRemaining(serialised::add);
+        serialised.remove("id");
+        assertThat(delta.keySet()).containsExactlyInAnyOrderElementsOf(serialised);
+        assertThat(apply(full(previous), delta)).isEqualTo(full(current));
+    }
+
+    @Test
+    void diff_shouldSendMissingValuesAsNull() {
+        CoinQuote previous = quote(2, "Ethereum", 3_200.0, Double.NaN, "2024-03-01T12:00:00.000Z");
+        CoinQuote current = quote(2, "Ethereum", Double.NaN, 4.5, "2024-03-01T12:00:30.000Z");
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        assertThat(QuoteFields.diff(previous, current, delta)).isTrue();
+
+        assertThat(delta).containsEntry("price", null).containsEntry("percent_change_24h", 4.5);
+        assertThat(apply(full(previous), delta)).isEqualTo(full(current));
+    }
+
+    @Test
+    void diff_shouldReportNothingForUnchangedQuote() {
+        CoinQuote quote = quote(3, "Tether", 1.0, Double.NaN, "2024-03-01T12:00:00.000Z");
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        assertThat(QuoteFields.diff(quote, quote(3, "Tether", 1.0, Double.NaN, "2024-03-01T12:00:00.000Z"), delta))
+                .isFalse();
+        assertThat(delta).isEmpty();
+    }
+
+    private ObjectNode full(CoinQuote quote) {
+        return objectMapper.valueToTree(quote);
+    }
+
+    private ObjectNode apply(ObjectNode target, Map<String, Object> delta) {
+        delta.forEach((field, value) -> target.set(field, objectMapper.valueToTree(value)));
+        return target;
+    }
+
+    private static CoinQuote quote(long id, String name, double price, double percentChange24h, String lastUpdated) {
+        return new CoinQuote(id, name, name.substring(0, 3).toUpperCase(), name.toLowerCase(), (int) id,
+                19_600_000, 19_600_000, 21_000_000, price, 15_000_000_000.0, 3.2,
+                -0.2, percentChange24h, 5.1, 10.2, 20.3, 30.4, 840_000_000_000.0, 52.1, 900_000_000_000.0,
+                lastUpdated);
+    }
+}
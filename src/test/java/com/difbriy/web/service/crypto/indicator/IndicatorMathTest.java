@@ -0,0 +1,139 @@
+package com.difbriy.web.service.crypto.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IndicatorMathTest {
+
+    @Test
+    void rangeKernels_shouldMatchNaiveLoopsForOddAndEvenLengths() {
+        double[] values = randomWalk(64, 7L);
+
+        // Длины 1..9 проходят все хвосты развёрнутых циклов (шаг 4 в sum, шаг 2 в stdDev)
+        for (int from = 0; from < 3; from++) {
+            for (int length = 1; length <= 9; length++) {
+                int to = from + length;
+                double[] range = Arrays.copyOfRange(values, from, to);
+
+                assertThat(IndicatorMath.sum(values, from, to)).isCloseTo(naiveSum(range), within(1e-9));
+                assertThat(IndicatorMath.mean(values, from, to)).isCloseTo(naiveMean(range), within(1e-9));
+                assertThat(IndicatorMath.stdDev(values, from, to)).isCloseTo(naiveStdDev(range), within(1e-9));
+                assertThat(IndicatorMath.min(values, from, to)).isEqualTo(Arrays.stream(range).min().orElseThrow());
+                assertThat(IndicatorMath.max(values, from, to)).isEqualTo(Arrays.stream(range).max().orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    void seriesKernels_shouldMatchReferenceForOddAndEvenLengths() {
+        for (int length : new int[]{15, 16, 20, 21, 250, 251}) {
+            double[] prices = randomWalk(length, length);
+
+            assertThat(IndicatorMath.sma(prices, 14))
+                    .isCloseTo(naiveMean(Arrays.copyOfRange(prices, length - 14, length)), within(1e-9));
+            assertThat(IndicatorMath.ema(prices, 14)).isCloseTo(naiveEma(prices, 14), within(1e-9));
+            assertThat(IndicatorMath.rsi(prices, 14)).isCloseTo(naiveRsi(prices, 14), within(1e-9));
+            assertThat(IndicatorMath.returnVolatility(prices)).isCloseTo(naiveReturnVolatility(prices), within(1e-9));
+        }
+    }
+
+    @Test
+    void kernels_shouldHandleShortAndEmptyInputs() {
+        double[] empty = new double[0];
+        double[] prices = {100, 102, 101};
+
+        assertThat(IndicatorMath.sum(empty, 0, 0)).isZero();
+        assertThat(IndicatorMath.mean(empty, 0, 0)).isNaN();
+        assertThat(IndicatorMath.stdDev(empty, 0, 0)).isNaN();
+        assertThat(IndicatorMath.min(prices, 1, 1)).isNaN();
+        assertThat(IndicatorMath.max(prices, 1, 1)).isNaN();
+
+        // SMA по неполному окну — среднее всего, что есть; EMA и RSI без затравки не определены
+        assertThat(IndicatorMath.sma(prices, 20)).isCloseTo(101.0, within(1e-9));
+        assertThat(IndicatorMath.sma(empty, 20)).isNaN();
+        assertThat(IndicatorMath.ema(prices, 20)).isNaN();
+        assertThat(IndicatorMath.rsi(prices, 3)).isNaN();
+        assertThat(IndicatorMath.rsi(new double[]{1, 2, 3, 4}, 3)).isEqualTo(100.0);
+        assertThat(IndicatorMath.returnVolatility(new double[]{100})).isNaN();
+        assertThat(IndicatorMath.stdDev(prices, 2, 3)).isZero();
+    }
+
+    @Test
+    void toDecimal_shouldRoundAndMapNaNToNull() {
+        assertThat(IndicatorMath.toDecimal(0.000012345678, 8)).isEqualByComparingTo(new BigDecimal("0.00001235"));
+        assertThat(IndicatorMath.toDecimal(55.55555, 4)).isEqualByComparingTo(new BigDecimal("55.5556"));
+        assertThat(IndicatorMath.toDecimal(Double.NaN, 4)).isNull();
+        assertThat(IndicatorMath.toDecimal(Double.POSITIVE_INFINITY, 4)).isNull();
+    }
+
+    private static double naiveSum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static double naiveMean(double[] values) {
+        return naiveSum(values) / values.length;
+    }
+
+    private static double naiveStdDev(double[] values) {
+        double mean = naiveMean(values);
+        double sumSquares = 0;
+        for (double value : values) {
+            sumSquares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sumSquares / values.length);
+    }
+
+    private static double naiveEma(double[] values, int period) {
+        double ema = naiveMean(Arrays.copyOfRange(values, 0, period));
+        for (int i = period; i < values.length; i++) {
+            ema = values[i] * 2 / (period + 1) + ema * (1 - 2.0 / (period + 1));
+        }
+        return ema;
+    }
+
+    private static double naiveRsi(double[] prices, int period) {
+        double avgGain = 0;
+        double avgLoss = 0;
+        for (int i = 1; i < prices.length; i++) {
+            double change = prices[i] - prices[i - 1];
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+            if (i <= period) {
+                avgGain += gain / period;
+                avgLoss += loss / period;
+            } else {
+                avgGain = (avgGain * (period - 1) + gain) / period;
+                avgLoss = (avgLoss * (period - 1) + loss) / period;
+            }
+        }
+        return avgLoss == 0 ? 100 : 100 - 100 / (1 + avgGain / avgLoss);
+    }
+
+    private static double naiveReturnVolatility(double[] prices) {
+        double[] returns = new double[prices.length - 1];
+        for (int i = 1; i < prices.length; i++) {
+            returns[i - 1] = (prices[i] - prices[i - 1]) / prices[i - 1] * 100;
+        }
+        return naiveStdDev(returns);
+    }
+
+    private static double[] randomWalk(int length, long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[length];
+        prices[0] = 100;
+        for (int i = 1; i < length; i++) {
+            prices[i] = Math.max(1, prices[i - 1] * (1 + random.nextGaussian() * 0.01));
+        }
+        return prices;
+    }
+}
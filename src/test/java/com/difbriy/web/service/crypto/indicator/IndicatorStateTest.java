@@ -0,0 +1,110 @@
+package com.difbriy.web.service.crypto.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IndicatorStateTest {
+
+    private static final int CAPACITY = 250;
+
+    @Test
+    void update_shouldMatchFullRecomputationOverSlidingWindow() {
+        double[] prices = randomWalk(1_000, 42L);
+        IndicatorState state = new IndicatorState(CAPACITY);
+
+        for (int i = 0; i < prices.length; i++) {
+            assertThat(state.update(i * 30_000L, prices[i])).isTrue();
+
+            if (i == 120 || i == CAPACITY + 37 || i == prices.length - 1) {
+                assertMatchesReference(state.snapshot(), Arrays.copyOfRange(prices, 0, i + 1));
+            }
+        }
+    }
+
+    @Test
+    void update_shouldIgnoreStaleAndMissingSamples() {
+        IndicatorState state = new IndicatorState(CAPACITY);
+
+        assertThat(state.update(1_000L, 100.0)).isTrue();
+        assertThat(state.update(1_000L, 101.0)).isFalse();
+        assertThat(state.update(500L, 102.0)).isFalse();
+        assertThat(state.update(2_000L, Double.NaN)).isFalse();
+
+        IndicatorSnapshot snapshot = state.snapshot();
+        assertThat(snapshot.samples()).isEqualTo(1L);
+        assertThat(snapshot.price()).isEqualTo(100.0);
+        assertThat(snapshot.rsi()).isNaN();
+        assertThat(snapshot.sma20()).isNaN();
+    }
+
+    private static void assertMatchesReference(IndicatorSnapshot snapshot, double[] history) {
+        double[] window = Arrays.copyOfRange(history, Math.max(0, history.length - CAPACITY), history.length);
+
+        assertThat(snapshot.price()).isEqualTo(history[history.length - 1]);
+        assertThat(snapshot.min()).isEqualTo(Arrays.stream(window).min().orElseThrow());
+        assertThat(snapshot.max()).isEqualTo(Arrays.stream(window).max().orElseThrow());
+        assertThat(snapshot.sma20()).isCloseTo(mean(tail(window, 20)), within(1e-9));
+        assertThat(snapshot.sma50()).isCloseTo(mean(tail(window, 50)), within(1e-9));
+        if (window.length >= 200) {
+            assertThat(snapshot.sma200()).isCloseTo(mean(tail(window, 200)), within(1e-9));
+        } else {
+            assertThat(snapshot.sma200()).isNaN();
+        }
+        assertThat(snapshot.volatility()).isCloseTo(returnStdDev(window), within(1e-9));
+        assertThat(snapshot.rsi()).isCloseTo(wilderRsi(history), within(1e-9));
+    }
+
+    private static double wilderRsi(double[] prices) {
+        double avgGain = 0;
+        double avgLoss = 0;
+        for (int i = 1; i < prices.length; i++) {
+            double change = prices[i] - prices[i - 1];
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+            if (i <= IndicatorState.RSI_PERIOD) {
+                avgGain += gain / IndicatorState.RSI_PERIOD;
+                avgLoss += loss / IndicatorState.RSI_PERIOD;
+            } else {
+                avgGain = (avgGain * (IndicatorState.RSI_PERIOD - 1) + gain) / IndicatorState.RSI_PERIOD;
+                avgLoss = (avgLoss * (IndicatorState.RSI_PERIOD - 1) + loss) / IndicatorState.RSI_PERIOD;
+            }
+        }
+        return avgLoss == 0 ? 100 : 100 - 100 / (1 + avgGain / avgLoss);
+    }
+
+    private static double returnStdDev(double[] window) {
+        double[] returns = new double[window.length - 1];
+        for (int i = 1; i < window.length; i++) {
+            returns[i - 1] = (window[i] - window[i - 1]) / window[i - 1] * 100;
+        }
+        double mean = mean(returns);
+        double sumSquares = 0;
+        for (double r : returns) {
+            sumSquares += (r - mean) * (r - mean);
+        }
+        return Math.sqrt(sumSquares / returns.length);
+    }
+
+    private static double[] tail(double[] values, int length) {
+        return Arrays.copyOfRange(values, values.length - length, values.length);
+    }
+
+    private static double mean(double[] values) {
+        return Arrays.stream(values).sum() / values.length;
+    }
+
+    private static double[] randomWalk(int length, long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[length];
+        prices[0] = 100;
+        for (int i = 1; i < length; i++) {
+            prices[i] = Math.max(1, prices[i - 1] * (1 + random.nextGaussian() * 0.01));
+        }
+        return prices;
+    }
+}